@@ -0,0 +1,103 @@
+package org.orekit.forces.radiation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD summation kernel of the infrared grid cells, using the JDK Vector API
+ * <p>
+ * The cells are processed by groups of {@link DoubleVector#SPECIES_PREFERRED} lanes,
+ * the cells below the horizon are masked out. The lanes are reduced at the end of
+ * the range, so the result only differs from the scalar loop by the summation order.
+ * </p>
+ */
+final class InfraredVectorKernel implements InfraredCellKernel {
+	
+	/**
+	 * Lanes used by the kernel
+	 */
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+	
+	/** {@inheritDoc} */
+	@Override
+	public void accumulate(int from, int to,
+			double[] cellX, double[] cellY, double[] cellZ,
+			double[] normalX, double[] normalY, double[] normalZ,
+			double px, double py, double pz, double pNorm,
+			double cosHorizon, double weight,
+			double sunX, double sunY, double sunZ, double albedoWeight, double[] acc)
+	{
+		DoubleVector sumX = DoubleVector.zero(SPECIES);
+		DoubleVector sumY = DoubleVector.zero(SPECIES);
+		DoubleVector sumZ = DoubleVector.zero(SPECIES);
+		
+		int k = from;
+		final int upper = from + SPECIES.loopBound(to - from);
+		for(; k < upper; k += SPECIES.length())
+		{
+			// cosine of the angle between the cell normal and the satellite direction
+			final DoubleVector cosSatGridAngle = DoubleVector.fromArray(SPECIES, normalX, k).mul(px)
+					.add(DoubleVector.fromArray(SPECIES, normalY, k).mul(py))
+					.add(DoubleVector.fromArray(SPECIES, normalZ, k).mul(pz))
+					.div(pNorm);
+			final VectorMask<Double> visible = cosSatGridAngle.compare(VectorOperators.GE, cosHorizon);
+			if(!visible.anyTrue())
+			{
+				continue;
+			}
+			
+			final DoubleVector dx = DoubleVector.broadcast(SPECIES, px).sub(DoubleVector.fromArray(SPECIES, cellX, k));
+			final DoubleVector dy = DoubleVector.broadcast(SPECIES, py).sub(DoubleVector.fromArray(SPECIES, cellY, k));
+			final DoubleVector dz = DoubleVector.broadcast(SPECIES, pz).sub(DoubleVector.fromArray(SPECIES, cellZ, k));
+			final DoubleVector satGridDistanceSq = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz));
+			final DoubleVector satGridDistance   = satGridDistanceSq.sqrt();
+			
+			DoubleVector w = DoubleVector.broadcast(SPECIES, weight);
+			if(albedoWeight != 0.0)
+			{
+				// only the sunlit cells reflect
+				final DoubleVector cosSun = DoubleVector.fromArray(SPECIES, normalX, k).mul(sunX)
+						.add(DoubleVector.fromArray(SPECIES, normalY, k).mul(sunY))
+						.add(DoubleVector.fromArray(SPECIES, normalZ, k).mul(sunZ));
+				w = w.add(cosSun.max(0.0).mul(albedoWeight));
+			}
+			
+			// the last division normalizes the cell to satellite vector
+			final DoubleVector f = cosSatGridAngle.mul(w).div(satGridDistanceSq.mul(satGridDistance));
+			sumX = sumX.add(f.mul(dx), visible);
+			sumY = sumY.add(f.mul(dy), visible);
+			sumZ = sumZ.add(f.mul(dz), visible);
+		}
+		
+		acc[0] += sumX.reduceLanes(VectorOperators.ADD);
+		acc[1] += sumY.reduceLanes(VectorOperators.ADD);
+		acc[2] += sumZ.reduceLanes(VectorOperators.ADD);
+		
+		// remaining cells
+		for(; k < to; k++)
+		{
+			final double cosSatGridAngle = (normalX[k] * px + normalY[k] * py + normalZ[k] * pz) / pNorm;
+			if(cosSatGridAngle >= cosHorizon)
+			{
+				final double dx = px - cellX[k];
+				final double dy = py - cellY[k];
+				final double dz = pz - cellZ[k];
+				final double satGridDistanceSq = dx * dx + dy * dy + dz * dz;
+				final double satGridDistance   = Math.sqrt(satGridDistanceSq);
+				
+				double w = weight;
+				if(albedoWeight != 0.0)
+				{
+					w += albedoWeight * Math.max(0.0, normalX[k] * sunX + normalY[k] * sunY + normalZ[k] * sunZ);
+				}
+				
+				final double f = w * cosSatGridAngle / (satGridDistanceSq * satGridDistance);
+				acc[0] += f * dx;
+				acc[1] += f * dy;
+				acc[2] += f * dz;
+			}
+		}
+	}
+}
@@ -3,15 +3,28 @@ package eu.esa.orbiprotester;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.DailyRollingFileAppender;
+import org.apache.log4j.FileAppender;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.apache.log4j.PatternLayout;
@@ -20,6 +33,7 @@ import org.orekit.errors.OrekitException;
 import eu.esa.orbiprotester.runs.StandardTestRun;
 import eu.esa.orbiprotester.runs.TestRun;
 import eu.esa.orbiprotester.runs.TestRunFactory;
+import eu.esa.orbiprotester.utils.IncrementalRuns;
 
 /**
  * Tester.
@@ -40,6 +54,21 @@ public class TesterLauncher {
     /** The folder that contains the output of the application. */
     private static String outputFolder = "./output";
 
+    /** The number of tests run in parallel. */
+    private static int jobs = 1;
+
+    /** True if the input folder is watched for new or modified input files. */
+    private static boolean daemon = false;
+
+    /** True if the tests whose input files did not change reuse the results of a previous run. */
+    private static boolean incremental = false;
+
+    /** Time without change of the input folder before the changed files are run (ms). */
+    private static final long QUIET_PERIOD = 500;
+
+    /** The layout of the log messages. */
+    private static final PatternLayout LAYOUT = new PatternLayout("%d{ISO8601} %-5p %c{1},%L - %m\n");
+
     /**
      * Constructor.
      */
@@ -58,19 +87,15 @@ public class TesterLauncher {
             // Set the English locale
             Locale.setDefault(Locale.ENGLISH);
 
-            // Create the layout for the log messages
-            final PatternLayout layout = new PatternLayout(
-                    "%d{ISO8601} %-5p %c{1},%L - %m\n");
-
             // Add a console appender
-            LOGGER.addAppender(new ConsoleAppender(layout));
+            LOGGER.addAppender(new ConsoleAppender(LAYOUT));
 
             // Ensure the log folder exists
             new File("./log").mkdirs();
 
             // Create the appender for the file
             final DailyRollingFileAppender fileAppender = new DailyRollingFileAppender(
-                    layout, "./log/app.log", "'.'yyyy-MM-dd");
+                    LAYOUT, "./log/app.log", "'.'yyyy-MM-dd");
 
             // Add a file appender
             LOGGER.addAppender(fileAppender);
@@ -135,6 +160,32 @@ public class TesterLauncher {
                         defaultReference = false;
                         paramNum++;
                     }
+                } else if (param.equalsIgnoreCase("-j")) {
+                    // The number of parallel tests is specified
+                    paramNum++;
+                    if (paramNum >= args.length) {
+                        // Print error, usage info and exit application
+                        printUsageAndExit("The number of parallel tests must be specified!");
+                    } else {
+                        //Read the number of parallel tests
+                        try {
+                            jobs = Integer.parseInt(args[paramNum]);
+                        } catch (NumberFormatException nfe) {
+                            jobs = 0;
+                        }
+                        if (jobs < 1) {
+                            printUsageAndExit("Invalid number of parallel tests: " + args[paramNum]);
+                        }
+                        paramNum++;
+                    }
+                } else if (param.equalsIgnoreCase("--daemon")) {
+                    // The input folder is watched
+                    daemon = true;
+                    paramNum++;
+                } else if (param.equalsIgnoreCase("--incremental")) {
+                    // The unchanged tests are not run again
+                    incremental = true;
+                    paramNum++;
                 } else if (param.equalsIgnoreCase("-h")) {
                     // Print usage info and exit application
                     printUsageAndExit(null);
@@ -154,8 +205,8 @@ public class TesterLauncher {
                 LOGGER.info("No reference folder specified! Using default folder ('./matlab').");
             }
 
-            //Read the input folder if one was specified or the default should be used
-            if (!defaultInput || inputFilesList.size() == 0) {
+            //Read the input folder if one was specified, the default should be used or it is watched
+            if (!defaultInput || inputFilesList.size() == 0 || daemon) {
                 //List all input files
                 final File inputFolderFile = new File(TesterLauncher.inputFolder);
                 if (!inputFolderFile.exists() || !inputFolderFile.isDirectory()) {
@@ -165,17 +216,19 @@ public class TesterLauncher {
 
                 // Read the input files
                 final File[] inputFiles = inputFolderFile.listFiles(new TesterLauncher.InputFileFilter());
-                if (inputFiles.length < 1) {
+                if (inputFiles.length < 1 && !daemon) {
                     // Print error, usage info and exit application
                     printUsageAndExit("There are no input files in the folder " + TesterLauncher.inputFolder + "!");
                 }
 
                 //Add all input files to the list
-                inputFilesList.addAll(Arrays.asList(inputFiles));
+                if (!defaultInput || inputFilesList.size() == 0) {
+                    inputFilesList.addAll(Arrays.asList(inputFiles));
+                }
             }
 
             // Check the reference folder
-            File referenceFolderFile = new File(TesterLauncher.referenceFolder);
+            final File referenceFolderFile = new File(TesterLauncher.referenceFolder);
             if (!referenceFolderFile.exists() || !referenceFolderFile.isDirectory()) {
                 // Print error, usage info and exit application
                 printUsageAndExit("The reference folder '" + TesterLauncher.referenceFolder + "' is not valid!");
@@ -191,32 +244,19 @@ public class TesterLauncher {
                 printUsageAndExit("Cannot create the " + "output folder " + TesterLauncher.outputFolder + "!");
             }
 
-            // create the real output folder within the base output folder
-            final SimpleDateFormat sdf = new SimpleDateFormat("YYYY-MM-dd_HH-mm-ss-SSS", Locale.ENGLISH);
-            final File outputFolderFile = new File(baseOutputFolder, sdf.format(new Date(System.currentTimeMillis())));
-            if (!outputFolderFile.mkdirs()) {
-                // Print error, usage info and exit application
-                printUsageAndExit("Cannot create the output folder " + outputFolderFile.getAbsolutePath() + "!");
-            }
-
-            // launch the simulation
-            LOGGER.info("Starting tests for " + inputFilesList.size() + " input files!");
-            for (File f : inputFilesList) {
-                LOGGER.info("Starting test for input file " + f.getName());
-                try {
-                    new TesterLauncher().run(f, outputFolderFile, referenceFolderFile);
-                    LOGGER.info("Finished test for input file " + f.getName());
-                } catch (OrekitException oe) {
-                    LOGGER.error(oe.getLocalizedMessage(), oe);
-                } catch (IOException ioe) {
-                    LOGGER.error(ioe.getLocalizedMessage(), ioe);
-                } catch (NullPointerException e) {
-                    LOGGER.error(e.getLocalizedMessage(), e);
+            // launch the simulations on a pool of workers, kept alive while the input folder is watched
+            final ExecutorService executor = Executors.newFixedThreadPool(jobs);
+            try {
+                if (inputFilesList.size() > 0) {
+                    runTests(inputFilesList, baseOutputFolder, referenceFolderFile, executor);
+                }
+                if (daemon) {
+                    watchInputFolder(new File(TesterLauncher.inputFolder), baseOutputFolder, referenceFolderFile, executor);
                 }
+            } finally {
+                executor.shutdown();
             }
 
-            LOGGER.info("All tests finished!");
-
         } catch (IOException ioe) {
             LOGGER.error(ioe.getLocalizedMessage(), ioe);
         }
@@ -235,7 +275,7 @@ public class TesterLauncher {
         }
 
         //Print the usage info
-        LOGGER.info("usage: java -jar orbiprotester.jar [-h] [-i INPUT_FOLDER] [-f INPUT_FILE] [-o OUTPUT_FOLDER] [-m MATLAB_FOLDER]");
+        LOGGER.info("usage: java -jar orbiprotester.jar [-h] [-i INPUT_FOLDER] [-f INPUT_FILE] [-o OUTPUT_FOLDER] [-m MATLAB_FOLDER] [-j JOBS] [--daemon] [--incremental]");
         LOGGER.info("Where:");
         LOGGER.info("\t-h \tPrint this information and exit.");
         LOGGER.info("");
@@ -255,35 +295,260 @@ public class TesterLauncher {
         LOGGER.info("\t-m MATLAB_FOLDER: \tThe folder that contains the Orbipro generated files.");
         LOGGER.info("\t\t\t\tIf this parameter is not specified, the value './matlab' is used.");
         LOGGER.info("\t\t\t\tIf the folder cannot be read then no comparison will be performed.");
+        LOGGER.info("");
+        LOGGER.info("\t-j JOBS: \tThe number of tests run in parallel.");
+        LOGGER.info("\t\t\t\tEach test also logs to TEST_NAME.log in the output folder of the run.");
+        LOGGER.info("\t\t\t\tIf this parameter is not specified, the tests are run one after another.");
+        LOGGER.info("");
+        LOGGER.info("\t--daemon: \tKeep running and watch the input folder.");
+        LOGGER.info("\t\t\t\tThe new or modified input files are run in a new output folder of the run.");
+        LOGGER.info("\t\t\t\tThe orekit data already loaded are reused by the following runs.");
+        LOGGER.info("");
+        LOGGER.info("\t--incremental: \tDo not run again the tests whose files did not change.");
+        LOGGER.info("\t\t\t\tThe input, reference, attitude and orekit data files of a test are hashed and");
+        LOGGER.info("\t\t\t\tthe output of the latest successful run with the same hash is linked or copied.");
         LOGGER.info("\n\n");
 
         //Exit application
         System.exit(0);
     }
 
+    /**
+     * Run the tests of a list of input files in a new output folder.
+     *
+     * @param inputFiles the input files
+     * @param baseOutputFolder the base output folder, where the output folder of the run is created
+     * @param refFolder the folder that contains the reference file
+     * @param executor the workers running the tests
+     *
+     * @throws IOException if the output folder of the run cannot be created
+     */
+    private static void runTests(final List<File> inputFiles, final File baseOutputFolder, final File refFolder,
+                                 final ExecutorService executor)
+        throws IOException {
+
+        // create the real output folder within the base output folder
+        final SimpleDateFormat sdf = new SimpleDateFormat("YYYY-MM-dd_HH-mm-ss-SSS", Locale.ENGLISH);
+        final File outputFolderFile = new File(baseOutputFolder, sdf.format(new Date(System.currentTimeMillis())));
+        if (!outputFolderFile.mkdirs()) {
+            throw new IOException("Cannot create the output folder " + outputFolderFile.getAbsolutePath() + "!");
+        }
+
+        LOGGER.info("Starting tests for " + inputFiles.size() + " input files on " + jobs + " workers!");
+        final List<Future<TestSummary>> summaries = new ArrayList<Future<TestSummary>>();
+        for (final File f : inputFiles) {
+            summaries.add(executor.submit(() -> runTest(f, outputFolderFile, refFolder)));
+        }
+
+        // print the status and the wall time of each test
+        LOGGER.info("Tests summary (status, wall time in s):");
+        for (final Future<TestSummary> summary : summaries) {
+            try {
+                final TestSummary result = summary.get();
+                LOGGER.info("  " + result.name + ": " + result.status + ", " + result.wallTime);
+            } catch (InterruptedException | ExecutionException e) {
+                LOGGER.error(e.getLocalizedMessage(), e);
+            }
+        }
+
+        LOGGER.info("All tests finished!");
+    }
+
+    /**
+     * Watch the input folder and run the new or modified input files, until the folder
+     * is deleted or the application is stopped.
+     * <p>
+     * The events are gathered until the folder stays unchanged for {@link #QUIET_PERIOD},
+     * so a file written in several steps is run once.
+     * </p>
+     *
+     * @param folder the input folder
+     * @param baseOutputFolder the base output folder, where the output folder of each run is created
+     * @param refFolder the folder that contains the reference file
+     * @param executor the workers running the tests
+     *
+     * @throws IOException if the folder cannot be watched
+     */
+    private static void watchInputFolder(final File folder, final File baseOutputFolder, final File refFolder,
+                                         final ExecutorService executor)
+        throws IOException {
+
+        final Path folderPath = folder.toPath();
+        final InputFileFilter filter = new InputFileFilter();
+        try (WatchService watcher = folderPath.getFileSystem().newWatchService()) {
+            folderPath.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            while (true) {
+                LOGGER.info("Watching the input folder " + folder.getPath() + " for new or modified input files.");
+
+                // wait for a change, then until the folder is quiet
+                final Set<File> changed = new LinkedHashSet<File>();
+                WatchKey key = watcher.take();
+                while (key != null) {
+                    for (final WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            // some events were lost, run all the input files
+                            changed.addAll(Arrays.asList(folder.listFiles(filter)));
+                        } else {
+                            changed.add(folderPath.resolve((Path) event.context()).toFile());
+                        }
+                    }
+                    if (!key.reset()) {
+                        LOGGER.error("The input folder " + folder.getPath() + " cannot be watched anymore!");
+                        return;
+                    }
+                    key = watcher.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS);
+                }
+
+                // run the input files still present
+                final List<File> inputFiles = new ArrayList<File>();
+                for (final File file : changed) {
+                    if (file.isFile() && filter.accept(file)) {
+                        inputFiles.add(file);
+                    }
+                }
+                if (inputFiles.size() > 0) {
+                    try {
+                        runTests(inputFiles, baseOutputFolder, refFolder, executor);
+                    } catch (IOException ioe) {
+                        LOGGER.error(ioe.getLocalizedMessage(), ioe);
+                    }
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            LOGGER.info("Stopped watching the input folder " + folder.getPath() + ".");
+        }
+    }
+
+    /**
+     * Run the test for a given input file with its own logger.
+     * <p>
+     * The messages go to the application appenders and to the TEST_NAME.log file
+     * of the output folder.
+     * </p>
+     *
+     * @param input the input file that contains the test data
+     * @param baseOutputFolder the output folder
+     * @param refFolder the folder that contains the reference file. If null is used no comparison will be performed
+     * @return the status and wall time of the test
+     *
+     * @throws IOException if the log file cannot be created
+     */
+    private static TestSummary runTest(final File input, final File baseOutputFolder, final File refFolder)
+        throws IOException {
+
+        String testName = input.getName();
+        if (testName.lastIndexOf('.') != -1) {
+            testName = testName.substring(0, testName.lastIndexOf('.'));
+        }
+        final Logger logger = Logger.getLogger(TesterLauncher.class.getName() + "." + testName.replace('.', '_'));
+        final FileAppender testAppender = new FileAppender(LAYOUT, new File(baseOutputFolder, testName + ".log").getPath(), false);
+        logger.addAppender(testAppender);
+
+        TestStatus status = TestStatus.FAILED;
+        final long start = System.currentTimeMillis();
+        try {
+            logger.info("Starting test for input file " + input.getName());
+            status = new TesterLauncher().run(input, testName, baseOutputFolder, refFolder, logger);
+            logger.info("Finished test for input file " + input.getName());
+        } catch (IOException | RuntimeException e) {
+            logger.error(e.getLocalizedMessage(), e);
+        } finally {
+            logger.removeAppender(testAppender);
+            testAppender.close();
+        }
+        return new TestSummary(testName, status, (System.currentTimeMillis() - start) / 1000.);
+    }
+
     /**
      * Run the test for a given input file.
+     * <p>
+     * In incremental mode, the results of a previous run are reused if the files read
+     * by the test did not change.
+     * </p>
      *
      * @param input the input file that contains the test data
+     * @param testName the name of the test
      * @param baseOutputFolder the output folder
      * @param refFolder the folder that contains the reference file. If null is used no comparison will be performed
+     * @param logger the logger of the test
+     * @return the status of the test, the hash of its files is recorded only if it completed
      *
      * @throws IOException if there is a file related error
      * @throws OrekitException if there is a propagation error
      */
-    private void run(final File input, final File baseOutputFolder, final File refFolder)
+    private TestStatus run(final File input, final String testName, final File baseOutputFolder, final File refFolder,
+                        final Logger logger)
         throws IOException, OrekitException {
 
-        final TestRun testRun = TestRunFactory.buildTestRun(input, baseOutputFolder, refFolder, LOGGER);
+        final TestRun testRun = TestRunFactory.buildTestRun(input, baseOutputFolder, refFolder, logger);
+
+        String hash = null;
+        if (incremental) {
+            hash = IncrementalRuns.hash(testRun.getInputFiles());
+            final File previousRun = IncrementalRuns.findPreviousRun(baseOutputFolder, testName, hash);
+            if (previousRun != null) {
+                IncrementalRuns.reuse(previousRun, baseOutputFolder, testName, hash);
+                logger.info("Unchanged input files, results reused from " + previousRun.getPath());
+                return TestStatus.REUSED;
+            }
+        }
 
         //initialise the test
         testRun.readInputData();
 
         // run the test
-        testRun.runTest();
+        final boolean completed = testRun.runTest();
 
         //finalize the test
         testRun.finalizeTest();
+
+        if (!completed) {
+            // the partial results must not be reused by the incremental runs
+            logger.error("The test did not complete, only partial results are available");
+            return TestStatus.FAILED;
+        }
+        if (hash != null) {
+            IncrementalRuns.record(baseOutputFolder, testName, hash);
+        }
+        return TestStatus.OK;
+    }
+
+    /** Status of a test. */
+    private enum TestStatus {
+
+        /** The test completed. */
+        OK,
+
+        /** The results of a previous run with the same files were reused. */
+        REUSED,
+
+        /** The test ended in error or did not complete. */
+        FAILED
+    }
+
+    /** Status and wall time of a test. */
+    private static class TestSummary {
+
+        /** The name of the test. */
+        private final String name;
+
+        /** The status of the test. */
+        private final TestStatus status;
+
+        /** The wall time of the test (s). */
+        private final double wallTime;
+
+        /** Simple constructor.
+         * @param name the name of the test
+         * @param status the status of the test
+         * @param wallTime the wall time of the test (s)
+         */
+        TestSummary(final String name, final TestStatus status, final double wallTime) {
+            this.name     = name;
+            this.status   = status;
+            this.wallTime = wallTime;
+        }
     }
 
     /**
@@ -1,12 +1,22 @@
 
 package eu.esa.orbiprotester.orekitCustom;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.stream.IntStream;
+
+import org.hipparchus.Field;
 import org.hipparchus.RealFieldElement;
+import org.hipparchus.exception.DummyLocalizable;
 import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathArrays;
 import org.hipparchus.util.MathUtils;
 import org.orekit.bodies.BodyShape;
+import org.orekit.bodies.FieldGeodeticPoint;
 import org.orekit.bodies.GeodeticPoint;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
@@ -64,6 +74,27 @@ public class JB2008 implements Atmosphere {
     /** Minimum altitude (m) for JB2008 use. */
     private static final double ALT_MIN = 90000.;
 
+    /** Default lowest altitude of the density grids (m). */
+    public static final double GRID_ALTITUDE_MIN = 100000.;
+
+    /** Default highest altitude of the density grids (m). */
+    public static final double GRID_ALTITUDE_MAX = 1000000.;
+
+    /** Default altitude spacing of the density grids (m). */
+    public static final double GRID_ALTITUDE_STEP = 2000.;
+
+    /** Default exospheric temperature spacing of the density grids (deg K). */
+    public static final double GRID_TEMPERATURE_STEP = 20.;
+
+    /** Lowest local exospheric temperature of the density grids (deg K). */
+    private static final double GRID_TEMPERATURE_MIN = 500.;
+
+    /** Highest local exospheric temperature of the density grids (deg K). */
+    private static final double GRID_TEMPERATURE_MAX = 3000.;
+
+    /** Density grids shared by all the instances, by settings, built by the first instance needing them. */
+    private static final Map<String, FutureTask<JB2008DensityGrid>> DENSITY_GRIDS = new ConcurrentHashMap<>();
+
     /** Earth radius (km). */
     private static final double EARTH_RADIUS = 6356.766;
 
@@ -149,16 +180,10 @@ public class JB2008 implements Atmosphere {
         -0.212825156e+02,  0.275555432e+01
     };
 
-    /** Temperatures.
-     *  <ul>
-     *  <li>temp[0]: Exospheric Temperature above Input Position (deg K)</li>
-     *  <li>temp[1]: Temperature at Input Position (deg K)</li>
-     *  </ul>
+    /** Density and temperatures of the last call to
+     * {@link #getDensity(double, double, double, double, double, double, double, double, double, double, double, double, double, double, double)}.
      */
-    private double[] temp = new double[2];
-
-    /** Total Mass-Density at Input Position (kg/m³). */
-    private double rho;
+    private volatile JB2008Result lastResult = null;
 
     /** Sun position. */
     private PVCoordinatesProvider sun;
@@ -169,6 +194,30 @@ public class JB2008 implements Atmosphere {
     /** Earth body shape. */
     private BodyShape earth;
 
+    /** Duration of the Sun position cache buckets (s), 0 for the exact Sun position. */
+    private double sunCacheStep = 0.0;
+
+    /** Sun position at the boundaries of the last bucket. */
+    private transient volatile SunBucket sunBucket = null;
+
+    /** If true {@link #getDensity(AbsoluteDate, Vector3D, Frame)} interpolates density grids. */
+    private boolean densityGrid = false;
+
+    /** Lowest altitude of the density grids (m). */
+    private double gridAltitudeMin = GRID_ALTITUDE_MIN;
+
+    /** Highest altitude of the density grids (m). */
+    private double gridAltitudeMax = GRID_ALTITUDE_MAX;
+
+    /** Altitude spacing of the density grids (m). */
+    private double gridAltitudeStep = GRID_ALTITUDE_STEP;
+
+    /** Exospheric temperature spacing of the density grids (deg K). */
+    private double gridTemperatureStep = GRID_TEMPERATURE_STEP;
+
+    /** Density grid of the current settings, once computed. */
+    private transient volatile JB2008DensityGrid lastGrid = null;
+
     /** Constructor with space environment information for internal computation.
      * @param parameters the solar and magnetic activity data
      * @param sun the sun position
@@ -181,6 +230,63 @@ public class JB2008 implements Atmosphere {
         this.inputParams = parameters;
     }
 
+    /** Set the duration of the Sun position cache buckets.
+     * <p>
+     * The Sun longitude and latitude in the Earth body frame are computed at the
+     * boundaries of fixed time buckets and linearly interpolated inside a bucket,
+     * the longitude following the Earth rotation. With a zero step (default), the
+     * Sun position is computed at each date. The interpolation assumes the Sun
+     * longitude changes by less than half a turn over a bucket, so the step must
+     * stay well below half a day; a few minutes is typical.
+     * </p>
+     * @param step duration of the buckets (s), 0 for the exact Sun position
+     */
+    public void setSunCacheStep(final double step) {
+        this.sunCacheStep = FastMath.max(0.0, step);
+        this.sunBucket    = null;
+    }
+
+    /** Get the duration of the Sun position cache buckets.
+     * @return duration of the buckets (s), 0 for the exact Sun position
+     */
+    public double getSunCacheStep() {
+        return sunCacheStep;
+    }
+
+    /** Use density grids in {@link #getDensity(AbsoluteDate, Vector3D, Frame)}.
+     * <p>
+     * The costly part of the model, the integration of the diffusion equations from 90 km,
+     * only depends on the local exospheric temperature and on the height. In this mode it is
+     * replaced by the interpolation of a grid over these two variables, exponentially in
+     * height, while the exospheric temperature and the seasonal, semiannual and high altitude
+     * corrections are still computed exactly. The grid does not depend on the date nor on the
+     * solar activity, so it is computed once and shared by all the instances with the same
+     * settings. Outside of the grid, the exact model is used.
+     * {@link #computeDensity(AbsoluteDate, Vector3D, Frame)} and the batched methods are always exact.
+     * </p>
+     * @param altitudeMin lowest altitude of the grid (m), at least 90 km
+     * @param altitudeMax highest altitude of the grid (m)
+     * @param altitudeStep altitude spacing of the grid (m)
+     * @param temperatureStep exospheric temperature spacing of the grid (deg K)
+     */
+    public void setDensityGrid(final double altitudeMin, final double altitudeMax, final double altitudeStep,
+                               final double temperatureStep) {
+        this.densityGrid         = true;
+        this.gridAltitudeMin     = FastMath.max(ALT_MIN, altitudeMin);
+        this.gridAltitudeMax     = FastMath.max(this.gridAltitudeMin + altitudeStep, altitudeMax);
+        this.gridAltitudeStep    = altitudeStep;
+        this.gridTemperatureStep = temperatureStep;
+        this.lastGrid            = null;
+    }
+
+    /** Check if density grids are used.
+     * @return true if {@link #getDensity(AbsoluteDate, Vector3D, Frame)} interpolates density grids
+     * @see #setDensityGrid(double, double, double, double)
+     */
+    public boolean isDensityGrid() {
+        return densityGrid;
+    }
+
     /** {@inheritDoc} */
     public Frame getFrame() {
         return earth.getBodyFrame();
@@ -212,6 +318,7 @@ public class JB2008 implements Atmosphere {
      * @param dstdtc Temperature change computed from Dst index
      * @return total mass-Density at input position (kg/m³)
      * @exception OrekitException if altitude is below 90 km
+     * @see #computeDensity(double, double, double, double, double, double, double, double, double, double, double, double, double, double, double)
      */
     public double getDensity(final double dateMJD, final double sunRA, final double sunDecli,
                              final double satLon, final double satLat, final double satAlt,
@@ -219,48 +326,154 @@ public class JB2008 implements Atmosphere {
                              final double s10B, final double xm10, final double xm10B,
                              final double y10, final double y10B, final double dstdtc)
         throws OrekitException {
+        final JB2008Result result = computeDensity(dateMJD, sunRA, sunDecli, satLon, satLat, satAlt,
+                                                   f10, f10B, s10, s10B, xm10, xm10B, y10, y10B, dstdtc);
+        lastResult = result;
+        return result.getDensity();
+    }
+
+    /** Compute the local density and temperatures with initial entries.
+     * <p>
+     * This method does not change the state of the model, so it can be called
+     * concurrently from several threads.
+     * </p>
+     * @param dateMJD date and time, in modified julian days and fraction
+     * @param sunRA Right Ascension of Sun (radians)
+     * @param sunDecli Declination of Sun (radians)
+     * @param satLon Right Ascension of position (radians)
+     * @param satLat Geocentric latitude of position (radians)
+     * @param satAlt Height of position (m)
+     * @param f10 10.7-cm Solar flux (1e<sup>-22</sup>*Watt/(m²*Hertz))<br>
+     *        (Tabular time 1.0 day earlier)
+     * @param f10B 10.7-cm Solar Flux, averaged 81-day centered on the input time<br>
+     *        (Tabular time 1.0 day earlier)
+     * @param s10 EUV index (26-34 nm) scaled to F10<br>
+     *        (Tabular time 1 day earlier)
+     * @param s10B UV 81-day averaged centered index
+     *        (Tabular time 1 day earlier)
+     * @param xm10 MG2 index scaled to F10<br>
+     *        (Tabular time 2.0 days earlier)
+     * @param xm10B MG2 81-day ave. centered index<br>
+     *        (Tabular time 2.0 days earlier)
+     * @param y10 Solar X-Ray & Lya index scaled to F10<br>
+     *        (Tabular time 5.0 days earlier)
+     * @param y10B Solar X-Ray & Lya 81-day ave. centered index<br>
+     *        (Tabular time 5.0 days earlier)
+     * @param dstdtc Temperature change computed from Dst index
+     * @return total mass-density and temperatures at input position
+     * @exception OrekitException if altitude is below 90 km
+     */
+    public JB2008Result computeDensity(final double dateMJD, final double sunRA, final double sunDecli,
+                                       final double satLon, final double satLat, final double satAlt,
+                                       final double f10, final double f10B, final double s10,
+                                       final double s10B, final double xm10, final double xm10B,
+                                       final double y10, final double y10B, final double dstdtc)
+        throws OrekitException {
+        final Epoch epoch = new Epoch(dateMJD, sunRA, sunDecli,
+                                      f10, f10B, s10, s10B, xm10, xm10B, y10, y10B, dstdtc);
+        return computeDensity(epoch, satLon, satLat, satAlt);
+    }
+
+    /** Compute the local density and temperatures at one position.
+     * @param epoch the terms depending only on the date
+     * @param satLon Right Ascension of position (radians)
+     * @param satLat Geocentric latitude of position (radians)
+     * @param satAlt Height of position (m)
+     * @return total mass-density and temperatures at input position
+     * @exception OrekitException if altitude is below 90 km
+     */
+    private static JB2008Result computeDensity(final Epoch epoch, final double satLon,
+                                               final double satLat, final double satAlt)
+        throws OrekitException {
 
         if (satAlt < ALT_MIN) {
             throw new OrekitException(OrekitMessages.ALTITUDE_BELOW_ALLOWED_THRESHOLD, satAlt, ALT_MIN);
         }
 
         final double altKm = satAlt / 1000.0;
+        final double h     = satLon - epoch.sunRA;
+
+        // Compute the local exospheric temperature.
+        // Add geomagnetic storm effect from input dTc value
+        final double exosphericTemp = exosphericTemp(epoch, h, satLat);
+
+        // Compute correction to dTc for local solar time and lat correction
+        final double dtclst = dTc(epoch.f10, solarTime(h), satLat, altKm);
+        final double tinf = exosphericTemp + dtclst;
+
+        // Number densities at input position
+        final Profile profile = integrate(tinf, altKm);
+        final double[] aln = profile.aln;
+
+        // Sum the delta-log-rhos and apply to the number densities.
+        final double dlr = deltaLogRho(epoch, satLat, altKm, profile.z);
+        for (int i = 0; i < 6; ++i) {
+            aln[i] += dlr;
+        }
 
-        // Equation (14)
-        final double fn  = FastMath.min(1.0, FastMath.pow(f10B / 240., 0.25));
-        final double fsb = f10B * fn + s10B * (1. - fn);
-        final double tsubc = 392.4 + 3.227 * fsb + 0.298 * (f10 - f10B) + 2.259 * (s10 - s10B) +
-                             0.312 * (xm10 - xm10B) + 0.178 * (y10 - y10B);
+        // Compute mass-density and mean-molecular-weight and
+        // convert number density logs from natural to common.
+        double sumnm = 0.0;
+        for (int i = 0; i < 6; ++i) {
+            sumnm += FastMath.exp(aln[i]) * AMW[i];
+        }
+        double rho = sumnm / AVOGAD;
+
+        // Apply the exospheric density correction factor.
+        rho *= exosphericCorrection(epoch.f10B, altKm);
+
+        return new JB2008Result(rho, exosphericTemp, profile.tlocal);
+    }
+
+    /** Compute the local exospheric temperature, without the local solar time and latitude correction.
+     * @param epoch the terms depending only on the date
+     * @param h hour angle, Right Ascension of position minus Right Ascension of Sun (radians)
+     * @param satLat Geocentric latitude of position (radians)
+     * @return exospheric temperature above input position (deg K)
+     */
+    private static double exosphericTemp(final Epoch epoch, final double h, final double satLat) {
 
         // Equation (15)
-        final double eta   = 0.5 * FastMath.abs(satLat - sunDecli);
-        final double theta = 0.5 * FastMath.abs(satLat + sunDecli);
+        final double eta   = 0.5 * FastMath.abs(satLat - epoch.sunDecli);
+        final double theta = 0.5 * FastMath.abs(satLat + epoch.sunDecli);
 
         // Equation (16)
-        final double h   = satLon - sunRA;
         final double tau = h - 0.64577182 + 0.10471976 * FastMath.sin(h + 0.75049158);
-        double solarTime = FastMath.toDegrees(h + FastMath.PI) / 15.0;
-        while (solarTime >= 24) {
-            solarTime -= 24.;
-        }
-        while (solarTime < 0) {
-            solarTime += 24.;
-        }
 
         // Equation (17)
         final double cosEta  = FastMath.pow(FastMath.cos(eta), 2.5);
         final double sinTeta = FastMath.pow(FastMath.sin(theta), 2.5);
         final double cosTau  = FastMath.abs(FastMath.cos(0.5 * tau));
         final double df = sinTeta + (cosEta - sinTeta) * cosTau * cosTau * cosTau;
-        final double tsubl = tsubc * (1. + 0.31 * df);
+        final double tsubl = epoch.tsubc * (1. + 0.31 * df);
 
-        // Compute correction to dTc for local solar time and lat correction
-        final double dtclst = dTc(f10, solarTime, satLat, altKm);
+        return tsubl + epoch.dstdtc;
+    }
 
-        // Compute the local exospheric temperature.
-        // Add geomagnetic storm effect from input dTc value
-        temp[0] = tsubl + dstdtc;
-        final double tinf = temp[0] + dtclst;
+    /** Compute the local solar time.
+     * @param h hour angle, Right Ascension of position minus Right Ascension of Sun (radians)
+     * @return local solar time (hours in [0, 24[)
+     */
+    private static double solarTime(final double h) {
+        double solarTime = FastMath.toDegrees(h + FastMath.PI) / 15.0;
+        while (solarTime >= 24) {
+            solarTime -= 24.;
+        }
+        while (solarTime < 0) {
+            solarTime += 24.;
+        }
+        return solarTime;
+    }
+
+    /** Integrate the diffusion equations from 90 km up to the input position.
+     * <p>
+     * The result only depends on the local exospheric temperature and on the height.
+     * </p>
+     * @param tinf local exospheric temperature (deg K)
+     * @param altKm height of position (km)
+     * @return number density logarithms and temperature at input position
+     */
+    private static Profile integrate(final double tinf, final double altKm) {
 
         // Equation (9)
         final double tsubx = 444.3807 + 0.02385 * tinf - 392.8292 * FastMath.exp(-0.0021357 * tinf);
@@ -309,7 +522,7 @@ public class JB2008 implements Atmosphere {
             sub2 += dz * sum1;
         }
 
-        rho = 3.46e-6 * mb2 * tloc1 / FastMath.exp(sub2 / RSTAR) / (mb1 * tloc2);
+        double rho = 3.46e-6 * mb2 * tloc1 / FastMath.exp(sub2 / RSTAR) / (mb1 * tloc2);
 
         // Equation (2)
         final double anm = AVOGAD * rho;
@@ -325,8 +538,9 @@ public class JB2008 implements Atmosphere {
         aln[1] = FastMath.log(fact2 * (1. + FRAC[1]) - an);
         aln[2] = FastMath.log(2. * (an - fact2));
 
+        final double tlocal;
         if (altKm <= 105.0) {
-            temp[1] = tloc2;
+            tlocal = tloc2;
             // Put in negligible hydrogen for use in DO-LOOP 13
             aln[5] = aln[4] - 25.0;
         } else {
@@ -376,12 +590,12 @@ public class JB2008 implements Atmosphere {
             final double altr;
             final double hSign;
             if (altKm <= 500.) {
-                temp[1] = tloc3;
+                tlocal = tloc3;
                 altr = FastMath.log(tloc3 / tloc2);
                 fact2 = sub2 / RSTAR;
                 hSign = 1.0;
             } else {
-                temp[1] = tloc4;
+                tlocal = tloc4;
                 altr = FastMath.log(tloc4 / tloc2);
                 fact2 = (sub2 + sum3) / RSTAR;
                 hSign = -1.0;
@@ -396,39 +610,44 @@ public class JB2008 implements Atmosphere {
             aln[5] = LOG10 * (alnh5 + 6.) + hSign * (FastMath.log(tloc4 / tloc3) + sum3 * AMW[5] / RSTAR);
         }
 
+        return new Profile(aln, tlocal, z);
+    }
+
+    /** Compute the seasonal-latitudinal and semiannual variations of the density logarithm.
+     * @param epoch the terms depending only on the date
+     * @param satLat Geocentric latitude of position (radians)
+     * @param altKm height of position (km)
+     * @param z height of the last integration node (km)
+     * @return delta log(rho)
+     */
+    private static double deltaLogRho(final Epoch epoch, final double satLat, final double altKm, final double z) {
+
         // Equation (24) - J70 Seasonal-Latitudinal Variation
-        final double capPhi = ((dateMJD - 36204.0) / 365.2422) % 1;
         final int signum = (satLat >= 0.) ? 1 : -1;
         final double sinLat = FastMath.sin(satLat);
         final double hm90  = altKm - 90.;
         final double dlrsl = 0.02 * hm90 * FastMath.exp(-0.045 * hm90) *
-                             signum * FastMath.sin(MathUtils.TWO_PI * capPhi + 1.72) * sinLat * sinLat;
+                             signum * epoch.seasonal * sinLat * sinLat;
 
         // Equation (23) - Computes the semiannual variation
         double dlrsa = 0;
         if (z < 2000.0) {
             // Use new semiannual model dLog(rho)
-            dlrsa = semian08(dayOfYear(dateMJD), altKm, f10B, s10B, xm10B);
+            dlrsa = semian08Amplitude(altKm, epoch.f10B, epoch.s10B, epoch.xm10B) * epoch.semiannualPhase;
         }
 
-        // Sum the delta-log-rhos and apply to the number densities.
         // In CIRA72 the following equation contains an actual sum,
         // namely DLR = LOG10 * (DLRGM + DLRSA + DLRSL)
         // However, for Jacchia 70, there is no DLRGM or DLRSA.
-        final double dlr = LOG10 * (dlrsl + dlrsa);
-        for (int i = 0; i < 6; ++i) {
-            aln[i] += dlr;
-        }
-
-        // Compute mass-density and mean-molecular-weight and
-        // convert number density logs from natural to common.
-        double sumnm = 0.0;
-        for (int i = 0; i < 6; ++i) {
-            sumnm += FastMath.exp(aln[i]) * AMW[i];
-        }
-        rho = sumnm / AVOGAD;
+        return LOG10 * (dlrsl + dlrsa);
+    }
 
-        // Compute the high altitude exospheric density correction factor
+    /** Compute the high altitude exospheric density correction factor.
+     * @param f10B average 81-day centered f10
+     * @param altKm height of position (km)
+     * @return exospheric density correction factor
+     */
+    private static double exosphericCorrection(final double f10B, final double altKm) {
         double fex = 1.0;
         if ((altKm >= 1000.0) && (altKm < 1500.0)) {
             final double zeta = (altKm - 1000.) * 0.002;
@@ -440,11 +659,7 @@ public class JB2008 implements Atmosphere {
         } else if (altKm >= 1500.0) {
             fex = CHT[0] + CHT[1] * f10B + CHT[2] * altKm + CHT[3] * f10B * altKm;
         }
-
-        // Apply the exospheric density correction factor.
-        rho *= fex;
-
-        return rho;
+        return fex;
     }
 
     /** Compute daily temperature correction for Jacchia-Bowman model.
@@ -580,27 +795,43 @@ public class JB2008 implements Atmosphere {
         return Constants.G0_STANDARD_GRAVITY / (tmp * tmp);
     }
 
-    /** Compute semi-annual variation (delta log(rho)).
-     * @param doy day of year
+    /** Compute the semiannual amplitude of the semi-annual variation (delta log(rho)).
      * @param alt height (km)
      * @param f10B average 81-day centered f10
      * @param s10B average 81-day centered s10
      * @param xm10B average 81-day centered xn10
-     * @return semi-annual variation
+     * @return semiannual amplitude
      */
-    private static double semian08(final double doy, final double alt,
-                                   final double f10B, final double s10B, final double xm10B) {
+    private static double semian08Amplitude(final double alt,
+                                            final double f10B, final double s10B, final double xm10B) {
 
         final double htz = alt / 1000.0;
 
         // COMPUTE NEW 81-DAY CENTERED SOLAR INDEX FOR FZ
-        double fsmb = f10B - 0.70 * s10B - 0.04 * xm10B;
+        final double fsmb = f10B - 0.70 * s10B - 0.04 * xm10B;
 
         // SEMIANNUAL AMPLITUDE
         final double fzz = FZM[0] + fsmb * (FZM[1] + htz * (FZM[2] + FZM[3] * htz + FZM[4] * fsmb));
 
+        return FastMath.max(1.0e-6, fzz);
+
+    }
+
+    /** Compute the semiannual phase function of the semiannual variation.
+     * <p>
+     * It does not depend on the altitude, so it is computed once per date.
+     * </p>
+     * @param doy day of year
+     * @param f10B average 81-day centered f10
+     * @param s10B average 81-day centered s10
+     * @param xm10B average 81-day centered xn10
+     * @return semiannual phase function
+     */
+    private static double semian08Phase(final double doy,
+                                        final double f10B, final double s10B, final double xm10B) {
+
         // COMPUTE DAILY 81-DAY CENTERED SOLAR INDEX FOR GT
-        fsmb  = f10B - 0.75 * s10B - 0.37 * xm10B;
+        final double fsmb  = f10B - 0.75 * s10B - 0.37 * xm10B;
 
         // SEMIANNUAL PHASE FUNCTION
         final double tau   = MathUtils.TWO_PI * (doy - 1.0) / 365;
@@ -612,7 +843,7 @@ public class JB2008 implements Atmosphere {
         final double gtz = GTM[0] + GTM[1] * sin1P + GTM[2] * cos1P + GTM[3] * sin2P + GTM[4] * cos2P +
                            fsmb * (GTM[5] + GTM[6] * sin1P + GTM[7] * cos1P + GTM[8] * sin2P + GTM[9] * cos2P);
 
-        return FastMath.max(1.0e-6, fzz) * gtz;
+        return gtz;
 
     }
 
@@ -643,19 +874,29 @@ public class JB2008 implements Atmosphere {
     /** Get the exospheric temperature above input position.
      * {@link #getDensity(double, double, double, double, double, double, double, double, double, double, double, double, double, double, double)}
      * <b> must </b> must be called before calling this function.
+     * <p>
+     * The value is the one of the last call from any thread, concurrent callers should
+     * use the result of {@link #computeDensity(AbsoluteDate, Vector3D, Frame)} instead.
+     * </p>
      * @return the exospheric temperature (deg K)
      */
     public double getExosphericTemp() {
-        return temp[0];
+        final JB2008Result result = lastResult;
+        return (result == null) ? 0.0 : result.getExosphericTemp();
     }
 
     /** Get the temperature at input position.
      * {@link #getDensity(double, double, double, double, double, double, double, double, double, double, double, double, double, double, double)}
      * <b> must </b> must be called before calling this function.
+     * <p>
+     * The value is the one of the last call from any thread, concurrent callers should
+     * use the result of {@link #computeDensity(AbsoluteDate, Vector3D, Frame)} instead.
+     * </p>
      * @return the local temperature (deg K)
      */
     public double getLocalTemp() {
-        return temp[1];
+        final JB2008Result result = lastResult;
+        return (result == null) ? 0.0 : result.getLocalTemp();
     }
 
     /** Get the local density.
@@ -668,6 +909,150 @@ public class JB2008 implements Atmosphere {
     public double getDensity(final AbsoluteDate date, final Vector3D position,
                              final Frame frame)
         throws OrekitException {
+
+        if (!densityGrid) {
+            return computeDensity(date, position, frame).getDensity();
+        }
+
+        final Epoch epoch = computeEpoch(date);
+        final GeodeticPoint inBody = earth.transform(position, frame, date);
+        final double satLat   = inBody.getLatitude();
+        final double altitude = inBody.getAltitude();
+        final double altKm    = altitude / 1000.0;
+        final double h        = inBody.getLongitude() - epoch.sunRA;
+        final double tinf     = exosphericTemp(epoch, h, satLat) + dTc(epoch.f10, solarTime(h), satLat, altKm);
+
+        final JB2008DensityGrid grid = getDensityGrid();
+        if (!grid.contains(tinf, altitude)) {
+            return computeDensity(epoch, inBody.getLongitude(), satLat, altitude).getDensity();
+        }
+        return FastMath.exp(grid.interpolate(tinf, altitude) + deltaLogRho(epoch, satLat, altKm, altKm)) *
+               exosphericCorrection(epoch.f10B, altKm);
+    }
+
+    /** Compute the local density and temperatures.
+     * <p>
+     * This method does not change the state of the model, so one instance can be
+     * shared by concurrent propagations, provided the input parameters can be read
+     * concurrently, which is the case of {@link SolarIndicesJB2008}.
+     * </p>
+     * @param date current date
+     * @param position current position in frame
+     * @param frame the frame in which is defined the position
+     * @return local density and temperatures
+     * @exception OrekitException if date is out of range of solar activity
+     */
+    public JB2008Result computeDensity(final AbsoluteDate date, final Vector3D position,
+                                       final Frame frame)
+        throws OrekitException {
+
+        final Epoch epoch = computeEpoch(date);
+
+        // compute geodetic position
+        final GeodeticPoint inBody = earth.transform(position, frame, date);
+
+        return computeDensity(epoch, inBody.getLongitude(), inBody.getLatitude(), inBody.getAltitude());
+    }
+
+    /** Compute the local density at several positions with the same date.
+     * <p>
+     * The Sun position, the solar indices and the terms depending only on the date
+     * are computed once for all the positions. The densities are the same as the
+     * ones of {@link #getDensity(AbsoluteDate, Vector3D, Frame)} at each position.
+     * This method does not change the state of the model.
+     * </p>
+     * @param date current date
+     * @param frame the frame in which are defined the positions
+     * @param x positions X coordinates in frame (m)
+     * @param y positions Y coordinates in frame (m)
+     * @param z positions Z coordinates in frame (m)
+     * @param density array filled with the local densities (kg/m³)
+     * @exception OrekitException if date is out of range of solar activity,
+     * if an altitude is below 90 km or if the arrays lengths differ
+     */
+    public void computeDensity(final AbsoluteDate date, final Frame frame,
+                               final double[] x, final double[] y, final double[] z,
+                               final double[] density)
+        throws OrekitException {
+
+        checkLength("x", x.length, density.length);
+        checkLength("y", y.length, density.length);
+        checkLength("z", z.length, density.length);
+
+        final Epoch epoch = computeEpoch(date);
+        final Frame ecef = earth.getBodyFrame();
+        final Transform toBody = frame.getTransformTo(ecef, date);
+        for (int i = 0; i < density.length; ++i) {
+            final Vector3D position = toBody.transformPosition(new Vector3D(x[i], y[i], z[i]));
+            final GeodeticPoint inBody = earth.transform(position, ecef, date);
+            density[i] = computeDensity(epoch, inBody.getLongitude(), inBody.getLatitude(),
+                                        inBody.getAltitude()).getDensity();
+        }
+    }
+
+    /** Compute the local density at several positions and dates.
+     * <p>
+     * The terms depending only on the date are computed again only when the date
+     * changes from one position to the next, so positions sharing a date should be
+     * consecutive in the arrays. This method does not change the state of the model.
+     * </p>
+     * @param dates dates of the positions
+     * @param frame the frame in which are defined the positions
+     * @param x positions X coordinates in frame (m)
+     * @param y positions Y coordinates in frame (m)
+     * @param z positions Z coordinates in frame (m)
+     * @param density array filled with the local densities (kg/m³)
+     * @exception OrekitException if a date is out of range of solar activity,
+     * if an altitude is below 90 km or if the arrays lengths differ
+     */
+    public void computeDensity(final AbsoluteDate[] dates, final Frame frame,
+                               final double[] x, final double[] y, final double[] z,
+                               final double[] density)
+        throws OrekitException {
+
+        checkLength("dates", dates.length, density.length);
+        checkLength("x", x.length, density.length);
+        checkLength("y", y.length, density.length);
+        checkLength("z", z.length, density.length);
+
+        final Frame ecef = earth.getBodyFrame();
+        AbsoluteDate date = null;
+        Epoch epoch = null;
+        Transform toBody = null;
+        for (int i = 0; i < density.length; ++i) {
+            if (date == null || !dates[i].equals(date)) {
+                date   = dates[i];
+                epoch  = computeEpoch(date);
+                toBody = frame.getTransformTo(ecef, date);
+            }
+            final Vector3D position = toBody.transformPosition(new Vector3D(x[i], y[i], z[i]));
+            final GeodeticPoint inBody = earth.transform(position, ecef, date);
+            density[i] = computeDensity(epoch, inBody.getLongitude(), inBody.getLatitude(),
+                                        inBody.getAltitude()).getDensity();
+        }
+    }
+
+    /** Check the length of an input array of the batched density computations.
+     * @param name name of the array
+     * @param length length of the array
+     * @param expected length of the density array
+     * @exception OrekitException if the lengths differ
+     */
+    private static void checkLength(final String name, final int length, final int expected)
+        throws OrekitException {
+        if (length != expected) {
+            throw new OrekitException(new DummyLocalizable("Inconsistent array lengths: " + name + " has " + length +
+                                                           " elements, density has " + expected));
+        }
+    }
+
+    /** Compute the terms of the model depending only on the date.
+     * @param date current date
+     * @return the terms depending on the date
+     * @exception OrekitException if date is out of range of solar activity
+     */
+    private Epoch computeEpoch(final AbsoluteDate date)
+        throws OrekitException {
         // check if data are available :
         if (date.compareTo(inputParams.getMaxDate()) > 0 ||
             date.compareTo(inputParams.getMinDate()) < 0) {
@@ -678,21 +1063,33 @@ public class JB2008 implements Atmosphere {
         // compute MJD date
         final double dateMJD = date.durationFrom(AbsoluteDate.MODIFIED_JULIAN_EPOCH) / Constants.JULIAN_DAY;
 
-        // compute geodetic position
-        final GeodeticPoint inBody = earth.transform(position, frame, date);
-
         // compute sun position
-        final Frame ecef = earth.getBodyFrame();
-        final Vector3D sunPos = sun.getPVCoordinates(date, ecef).getPosition();
-        final GeodeticPoint sunInBody = earth.transform(sunPos, ecef, date);
-        return getDensity(dateMJD,
-                          sunInBody.getLongitude(), sunInBody.getLatitude(),
-                          inBody.getLongitude(), inBody.getLatitude(), inBody.getAltitude(),
-                          inputParams.getF10(date), inputParams.getF10B(date),
-                          inputParams.getS10(date), inputParams.getS10B(date),
-                          inputParams.getXM10(date), inputParams.getXM10B(date),
-                          inputParams.getY10(date), inputParams.getY10B(date),
-                          inputParams.getDSTDTC(date));
+        final double sunLongitude;
+        final double sunLatitude;
+        if (sunCacheStep > 0) {
+            final long index = (long) FastMath.floor(date.durationFrom(AbsoluteDate.J2000_EPOCH) / sunCacheStep);
+            SunBucket bucket = sunBucket;
+            if (bucket == null || bucket.index != index) {
+                bucket = new SunBucket(index, AbsoluteDate.J2000_EPOCH.shiftedBy(index * sunCacheStep));
+                sunBucket = bucket;
+            }
+            final double ratio = date.durationFrom(bucket.start) / sunCacheStep;
+            sunLongitude = MathUtils.normalizeAngle(bucket.longitude + ratio * bucket.longitudeChange, 0.0);
+            sunLatitude  = bucket.latitude + ratio * bucket.latitudeChange;
+        } else {
+            final GeodeticPoint sunInBody = computeSun(date);
+            sunLongitude = sunInBody.getLongitude();
+            sunLatitude  = sunInBody.getLatitude();
+        }
+
+        // get all solar and magnetic indices in one call
+        final JB2008SpaceWeather indices = inputParams.getSpaceWeather(date);
+        return new Epoch(dateMJD, sunLongitude, sunLatitude,
+                         indices.getF10(), indices.getF10B(),
+                         indices.getS10(), indices.getS10B(),
+                         indices.getXM10(), indices.getXM10B(),
+                         indices.getY10(), indices.getY10B(),
+                         indices.getDSTDTC());
     }
 
 	@Override
@@ -704,14 +1101,733 @@ public class JB2008 implements Atmosphere {
         return pvFrame.getVelocity();
 	}
 
-	//uncomented
+    /** Get the local density.
+     * <p>
+     * The position dependent part of the model is computed with the field elements,
+     * so the partial derivatives of the density with respect to the position are
+     * available in a single propagation. The Sun position, the solar indices and the
+     * other terms depending only on the date are computed at the real date, as the
+     * double version does. The density grid is never used by this method.
+     * </p>
+     * @param <T> type of the field elements
+     * @param date current date
+     * @param position current position in frame
+     * @param frame the frame in which is defined the position
+     * @return local density (kg/m³)
+     * @exception OrekitException if date is out of range of solar activity
+     * or if altitude is below 90 km
+     */
     @Override
     public <T extends RealFieldElement<T>> T
         getDensity(final FieldAbsoluteDate<T> date, final FieldVector3D<T> position,
                    final Frame frame)
             throws OrekitException {
-        // TODO: field implementation
-        throw new UnsupportedOperationException();
+
+        final Epoch epoch = computeEpoch(date.toAbsoluteDate());
+
+        // compute geodetic position
+        final FieldGeodeticPoint<T> inBody = earth.transform(position, frame, date);
+
+        return computeDensity(epoch, inBody.getLongitude(), inBody.getLatitude(), inBody.getAltitude());
+    }
+
+    /** Compute the local density at one position.
+     * @param <T> type of the field elements
+     * @param epoch the terms depending only on the date
+     * @param satLon Right Ascension of position (radians)
+     * @param satLat Geocentric latitude of position (radians)
+     * @param satAlt Height of position (m)
+     * @return total mass-density at input position (kg/m³)
+     * @exception OrekitException if altitude is below 90 km
+     */
+    private static <T extends RealFieldElement<T>> T computeDensity(final Epoch epoch, final T satLon,
+                                                                    final T satLat, final T satAlt)
+        throws OrekitException {
+
+        if (satAlt.getReal() < ALT_MIN) {
+            throw new OrekitException(OrekitMessages.ALTITUDE_BELOW_ALLOWED_THRESHOLD, satAlt.getReal(), ALT_MIN);
+        }
+
+        final T altKm = satAlt.divide(1000.0);
+        final T h     = satLon.subtract(epoch.sunRA);
+
+        // Compute the local exospheric temperature.
+        // Add geomagnetic storm effect from input dTc value
+        final T exosphericTemp = exosphericTemp(epoch, h, satLat);
+
+        // Compute correction to dTc for local solar time and lat correction
+        final T dtclst = dTc(epoch.f10, solarTime(h), satLat, altKm);
+        final T tinf = exosphericTemp.add(dtclst);
+
+        // Number densities at input position
+        final FieldProfile<T> profile = integrate(tinf, altKm);
+        final T[] aln = profile.aln;
+
+        // Sum the delta-log-rhos and apply to the number densities.
+        final T dlr = deltaLogRho(epoch, satLat, altKm, profile.z);
+
+        // Compute mass-density and mean-molecular-weight and
+        // convert number density logs from natural to common.
+        T sumnm = satAlt.getField().getZero();
+        for (int i = 0; i < 6; ++i) {
+            sumnm = sumnm.add(aln[i].add(dlr).exp().multiply(AMW[i]));
+        }
+        final T rho = sumnm.divide(AVOGAD);
+
+        // Apply the exospheric density correction factor.
+        return rho.multiply(exosphericCorrection(epoch.f10B, altKm));
+    }
+
+    /** Compute the local exospheric temperature, without the local solar time and latitude correction.
+     * @param <T> type of the field elements
+     * @param epoch the terms depending only on the date
+     * @param h hour angle, Right Ascension of position minus Right Ascension of Sun (radians)
+     * @param satLat Geocentric latitude of position (radians)
+     * @return exospheric temperature above input position (deg K)
+     */
+    private static <T extends RealFieldElement<T>> T exosphericTemp(final Epoch epoch, final T h, final T satLat) {
+
+        // Equation (15)
+        final T eta   = satLat.subtract(epoch.sunDecli).abs().multiply(0.5);
+        final T theta = satLat.add(epoch.sunDecli).abs().multiply(0.5);
+
+        // Equation (16)
+        final T tau = h.subtract(0.64577182).add(h.add(0.75049158).sin().multiply(0.10471976));
+
+        // Equation (17)
+        final T cosEta  = eta.cos().pow(2.5);
+        final T sinTeta = theta.sin().pow(2.5);
+        final T cosTau  = tau.multiply(0.5).cos().abs();
+        final T df = sinTeta.add(cosEta.subtract(sinTeta).multiply(cosTau).multiply(cosTau).multiply(cosTau));
+        final T tsubl = df.multiply(0.31).add(1.).multiply(epoch.tsubc);
+
+        return tsubl.add(epoch.dstdtc);
+    }
+
+    /** Compute the local solar time.
+     * @param <T> type of the field elements
+     * @param h hour angle, Right Ascension of position minus Right Ascension of Sun (radians)
+     * @return local solar time (hours in [0, 24[)
+     */
+    private static <T extends RealFieldElement<T>> T solarTime(final T h) {
+        T solarTime = h.add(FastMath.PI).multiply(FastMath.toDegrees(1.0) / 15.0);
+        while (solarTime.getReal() >= 24) {
+            solarTime = solarTime.subtract(24.);
+        }
+        while (solarTime.getReal() < 0) {
+            solarTime = solarTime.add(24.);
+        }
+        return solarTime;
+    }
+
+    /** Integrate the diffusion equations from 90 km up to the input position.
+     * <p>
+     * The number of integration nodes only depends on the real part of the height.
+     * </p>
+     * @param <T> type of the field elements
+     * @param tinf local exospheric temperature (deg K)
+     * @param altKm height of position (km)
+     * @return number density logarithms at input position
+     */
+    private static <T extends RealFieldElement<T>> FieldProfile<T> integrate(final T tinf, final T altKm) {
+
+        final Field<T> field = tinf.getField();
+        final T zero = field.getZero();
+
+        // Equation (9)
+        final T tsubx = tinf.multiply(0.02385).add(444.3807).
+                        subtract(tinf.multiply(-0.0021357).exp().multiply(392.8292));
+
+        // Equation (11)
+        final T gsubx = tsubx.subtract(183.).multiply(0.054285714);
+
+        // The TC array will be an argument in the call to localTemp,
+        // which evaluates Eq. (10) or (13)
+        final T[] tc = MathArrays.buildArray(field, 4);
+        tc[0] = tsubx;
+        tc[1] = gsubx;
+        // A of Equation (13)
+        tc[2] = tinf.subtract(tsubx).multiply(2. / FastMath.PI);
+        tc[3] = gsubx.divide(tc[2]);
+
+        // Equation (5)
+        final T z1 = zero.add(90.);
+        final T z2 = (altKm.getReal() < 105.0) ? altKm : zero.add(105.0);
+        T al = z2.divide(z1).log();
+        int n = 1 + (int) FastMath.floor(al.getReal() / R1);
+        T zr = al.divide(n).exp();
+        final T mb1 = mBar(z1);
+        final T tloc1 = localTemp(z1, tc);
+        T zend  = z1;
+        T sub2  = zero;
+        T ain   = mb1.multiply(gravity(z1)).divide(tloc1);
+        T mb2   = zero;
+        T tloc2 = zero;
+        T z     = zero;
+        T gravl = zero;
+
+        for (int i = 0; i < n; ++i) {
+            z = zend;
+            zend = zr.multiply(z);
+            final T dz = zend.subtract(z).multiply(0.25);
+            T sum1 = ain.multiply(WT[0]);
+            for (int j = 1; j < 5; ++j) {
+                z = z.add(dz);
+                mb2   = mBar(z);
+                tloc2 = localTemp(z, tc);
+                gravl = gravity(z);
+                ain   = mb2.multiply(gravl).divide(tloc2);
+                sum1  = sum1.add(ain.multiply(WT[j]));
+            }
+            sub2 = sub2.add(dz.multiply(sum1));
+        }
+
+        final T rho = mb2.multiply(tloc1).multiply(3.46e-6).
+                      divide(sub2.divide(RSTAR).exp()).divide(mb1.multiply(tloc2));
+
+        // Equation (2)
+        final T anm = rho.multiply(AVOGAD);
+        final T an  = anm.divide(mb2);
+
+        // Equation (3)
+        T fact2  = anm.divide(28.960);
+        final T[] aln = MathArrays.buildArray(field, 6);
+        aln[0] = fact2.multiply(FRAC[0]).log();
+        aln[3] = fact2.multiply(FRAC[2]).log();
+        aln[4] = fact2.multiply(FRAC[3]).log();
+        // Equation (4)
+        aln[1] = fact2.multiply(1. + FRAC[1]).subtract(an).log();
+        aln[2] = an.subtract(fact2).multiply(2.).log();
+
+        if (altKm.getReal() <= 105.0) {
+            // Put in negligible hydrogen for use in DO-LOOP 13
+            aln[5] = aln[4].subtract(25.0);
+        } else {
+            // Equation (6)
+            al   = ((altKm.getReal() < 500.0) ? altKm : zero.add(500.0)).divide(z).log();
+            n    = 1 + (int) FastMath.floor(al.getReal() / R2);
+            zr   = al.divide(n).exp();
+            sub2 = zero;
+            ain  = gravl.divide(tloc2);
+
+            T tloc3 = zero;
+            for (int i = 0; i < n; ++i) {
+                z = zend;
+                zend = zr.multiply(z);
+                final T dz = zend.subtract(z).multiply(0.25);
+                T sum1 = ain.multiply(WT[0]);
+                for (int j = 1; j < 5; ++j) {
+                    z = z.add(dz);
+                    tloc3 = localTemp(z, tc);
+                    gravl = gravity(z);
+                    ain   = gravl.divide(tloc3);
+                    sum1  = sum1.add(ain.multiply(WT[j]));
+                }
+                sub2 = sub2.add(dz.multiply(sum1));
+            }
+
+            al = ((altKm.getReal() > 500.0) ? altKm : zero.add(500.0)).divide(z).log();
+            final double r = (altKm.getReal() > 500.0) ? R3 : R2;
+            n = 1 + (int) FastMath.floor(al.getReal() / r);
+            zr = al.divide(n).exp();
+            T sum3 = zero;
+            T tloc4 = zero;
+            for (int i = 0; i < n; ++i) {
+                z = zend;
+                zend = zr.multiply(z);
+                final T dz = zend.subtract(z).multiply(0.25);
+                T sum1 = ain.multiply(WT[0]);
+                for (int j = 1; j < 5; ++j) {
+                    z = z.add(dz);
+                    tloc4 = localTemp(z, tc);
+                    gravl = gravity(z);
+                    ain   = gravl.divide(tloc4);
+                    sum1  = sum1.add(ain.multiply(WT[j]));
+                }
+                sum3 = sum3.add(dz.multiply(sum1));
+            }
+            final T altr;
+            final double hSign;
+            if (altKm.getReal() <= 500.) {
+                altr = tloc3.divide(tloc2).log();
+                fact2 = sub2.divide(RSTAR);
+                hSign = 1.0;
+            } else {
+                altr = tloc4.divide(tloc2).log();
+                fact2 = sub2.add(sum3).divide(RSTAR);
+                hSign = -1.0;
+            }
+            for (int i = 0; i < 5; ++i) {
+                aln[i] = aln[i].subtract(altr.multiply(1.0 + ALPHA[i])).subtract(fact2.multiply(AMW[i]));
+            }
+
+            // Equation (7)
+            final T al10t5 = tinf.log10();
+            final T alnh5 = al10t5.multiply(5.5).subtract(39.40).multiply(al10t5).add(73.13);
+            aln[5] = alnh5.add(6.).multiply(LOG10).
+                     add(tloc4.divide(tloc3).log().add(sum3.multiply(AMW[5] / RSTAR)).multiply(hSign));
+        }
+
+        return new FieldProfile<>(aln, z.getReal());
+    }
+
+    /** Compute the seasonal-latitudinal and semiannual variations of the density logarithm.
+     * @param <T> type of the field elements
+     * @param epoch the terms depending only on the date
+     * @param satLat Geocentric latitude of position (radians)
+     * @param altKm height of position (km)
+     * @param z height of the last integration node (km)
+     * @return delta log(rho)
+     */
+    private static <T extends RealFieldElement<T>> T deltaLogRho(final Epoch epoch, final T satLat,
+                                                                 final T altKm, final double z) {
+
+        // Equation (24) - J70 Seasonal-Latitudinal Variation
+        final int signum = (satLat.getReal() >= 0.) ? 1 : -1;
+        final T sinLat = satLat.sin();
+        final T hm90  = altKm.subtract(90.);
+        final T dlrsl = hm90.multiply(0.02).multiply(hm90.multiply(-0.045).exp()).
+                        multiply(sinLat).multiply(sinLat).multiply(signum * epoch.seasonal);
+
+        // Equation (23) - Computes the semiannual variation
+        T dlrsa = altKm.getField().getZero();
+        if (z < 2000.0) {
+            // Use new semiannual model dLog(rho)
+            dlrsa = semian08Amplitude(altKm, epoch.f10B, epoch.s10B, epoch.xm10B).multiply(epoch.semiannualPhase);
+        }
+
+        // In CIRA72 the following equation contains an actual sum,
+        // namely DLR = LOG10 * (DLRGM + DLRSA + DLRSL)
+        // However, for Jacchia 70, there is no DLRGM or DLRSA.
+        return dlrsl.add(dlrsa).multiply(LOG10);
+    }
+
+    /** Compute the high altitude exospheric density correction factor.
+     * @param <T> type of the field elements
+     * @param f10B average 81-day centered f10
+     * @param altKm height of position (km)
+     * @return exospheric density correction factor
+     */
+    private static <T extends RealFieldElement<T>> T exosphericCorrection(final double f10B, final T altKm) {
+        T fex = altKm.getField().getOne();
+        if ((altKm.getReal() >= 1000.0) && (altKm.getReal() < 1500.0)) {
+            final T zeta = altKm.subtract(1000.).multiply(0.002);
+            final double f15c = CHT[0] + CHT[1] * f10B + (CHT[2] + CHT[3] * f10B) * 1500.0;
+            final double f15cZeta = (CHT[2] + CHT[3] * f10B) * 500.0;
+            final double fex2 = 3.0 * f15c - f15cZeta - 3.0;
+            final double fex3 = f15cZeta - 2.0 * f15c + 2.0;
+            fex = fex.add(zeta.multiply(zeta).multiply(zeta.multiply(fex3).add(fex2)));
+        } else if (altKm.getReal() >= 1500.0) {
+            fex = altKm.multiply(CHT[2] + CHT[3] * f10B).add(CHT[0] + CHT[1] * f10B);
+        }
+        return fex;
+    }
+
+    /** Compute daily temperature correction for Jacchia-Bowman model.
+     * @param <T> type of the field elements
+     * @param f10 solar flux index
+     * @param solarTime local solar time (hours in [0, 24[)
+     * @param satLat sat lat (radians)
+     * @param satAlt height (km)
+     * @return dTc correction
+     */
+    private static <T extends RealFieldElement<T>> T dTc(final double f10, final T solarTime,
+                                                         final T satLat, final T satAlt) {
+        T dTc = satAlt.getField().getZero();
+        final T st = solarTime.divide(24.0);
+        final T cs = satLat.cos();
+        final double fs = (f10 - 100.0) / 100.0;
+
+        // Calculates dTc according to height
+        final double alt = satAlt.getReal();
+        if ((alt >= 120) && (alt <= 200)) {
+            final T dtc200 = poly2CDTC(fs, st, cs);
+            final T dtc200dz = poly1CDTC(fs, st, cs);
+            final T cc = dtc200.multiply(3.0).subtract(dtc200dz);
+            final T dd = dtc200.subtract(cc);
+            final T zp = satAlt.subtract(120.0).divide(80.0);
+            dTc = zp.multiply(zp).multiply(cc.add(dd.multiply(zp)));
+        } else if ((alt > 200.0) && (alt <= 240.0)) {
+            final T h = satAlt.subtract(200.0).divide(50.0);
+            dTc = poly1CDTC(fs, st, cs).multiply(h).add(poly2CDTC(fs, st, cs));
+        } else if ((alt > 240.0) && (alt <= 300.0)) {
+            final double h = 0.8;
+            final T bb = poly1CDTC(fs, st, cs);
+            final T aa = bb.multiply(h).add(poly2CDTC(fs, st, cs));
+            final T p2BDT = poly2BDTC(st);
+            final T dtc300 = poly1BDTC(fs, st, cs, p2BDT.multiply(3));
+            final T dtc300dz = cs.multiply(p2BDT);
+            final T cc = dtc300.multiply(3.0).subtract(dtc300dz).subtract(aa.multiply(3.0)).subtract(bb.multiply(2.0));
+            final T dd = dtc300.subtract(aa).subtract(bb).subtract(cc);
+            final T zp = satAlt.subtract(240.0).divide(60.0);
+            dTc = aa.add(zp.multiply(bb.add(zp.multiply(cc.add(zp.multiply(dd))))));
+        } else if ((alt > 300.0) && (alt <= 600.0)) {
+            final T h = satAlt.divide(100.0);
+            dTc = poly1BDTC(fs, st, cs, h.multiply(poly2BDTC(st)));
+        } else if ((alt > 600.0) && (alt <= 800.0)) {
+            final T poly2 = poly2BDTC(st);
+            final T aa = poly1BDTC(fs, st, cs, poly2.multiply(6));
+            final T bb = cs.multiply(poly2);
+            final T cc = aa.multiply(3.0).add(bb.multiply(4.0)).divide(-4.0);
+            final T dd = aa.add(bb).divide(4.0);
+            final T zp = satAlt.subtract(600.0).divide(100.0);
+            dTc = aa.add(zp.multiply(bb.add(zp.multiply(cc.add(zp.multiply(dd))))));
+        }
+
+        return dTc;
+    }
+
+    /** Calculates first polynomial with CDTC array.
+     * @param <T> type of the field elements
+     * @param fs scaled flux f10
+     * @param st local solar time in [0, 1[
+     * @param cs cosine of satLat
+     * @return the value of the polynomial
+     */
+    private static <T extends RealFieldElement<T>> T poly1CDTC(final double fs, final T st, final T cs) {
+        return    st.multiply(CDTC[6]).add(CDTC[5]).multiply(st).add(CDTC[4]).multiply(st).add(CDTC[3]).
+                  multiply(st).add(CDTC[2]).multiply(st).add(CDTC[1]).multiply(fs).
+              add(st.multiply(CDTC[11]).add(CDTC[10]).multiply(st).add(CDTC[9]).multiply(st).add(CDTC[8]).
+                  multiply(st).add(CDTC[7]).multiply(st).multiply(cs)).
+              add(st.multiply(CDTC[15]).add(CDTC[14]).multiply(st).add(CDTC[13]).multiply(fs).add(CDTC[12]).
+                  multiply(cs)).
+              add(CDTC[0]);
+    }
+
+    /** Calculates second polynomial with CDTC array.
+     * @param <T> type of the field elements
+     * @param fs scaled flux f10
+     * @param st local solar time in [0, 1[
+     * @param cs cosine of satLat
+     * @return the value of the polynomial
+     */
+    private static <T extends RealFieldElement<T>> T poly2CDTC(final double fs, final T st, final T cs) {
+        return st.multiply(CDTC[19]).add(CDTC[18]).multiply(st).add(CDTC[17]).multiply(st).multiply(cs).
+               add(st.multiply(CDTC[22]).add(CDTC[21]).multiply(st).add(CDTC[20]).multiply(cs).multiply(fs)).
+               add(CDTC[16]);
+    }
+
+    /** Calculates first polynomial with BDTC array.
+     * @param <T> type of the field elements
+     * @param fs scaled flux f10
+     * @param st local solar time in [0, 1[
+     * @param cs cosine of satLat
+     * @param hp scaled height * poly2BDTC
+     * @return the value of the polynomial
+     */
+    private static <T extends RealFieldElement<T>> T poly1BDTC(final double fs, final T st, final T cs, final T hp) {
+        return    st.multiply(BDTC[6]).add(BDTC[5]).multiply(st).add(BDTC[4]).multiply(st).add(BDTC[3]).
+                  multiply(st).add(BDTC[2]).multiply(st).add(BDTC[1]).multiply(fs).
+              add(st.multiply(BDTC[11]).add(BDTC[10]).multiply(st).add(BDTC[9]).multiply(st).add(BDTC[8]).
+                  multiply(st).add(BDTC[7]).multiply(st).add(hp).add(BDTC[18]).multiply(cs)).
+              add(BDTC[0]);
+    }
+
+    /** Calculates second polynomial with BDTC array.
+     * @param <T> type of the field elements
+     * @param st local solar time in [0, 1[
+     * @return the value of the polynomial
+     */
+    private static <T extends RealFieldElement<T>> T poly2BDTC(final T st) {
+        return st.multiply(BDTC[17]).add(BDTC[16]).multiply(st).add(BDTC[15]).multiply(st).add(BDTC[14]).
+               multiply(st).add(BDTC[13]).multiply(st).add(BDTC[12]);
+    }
+
+    /** Evaluates mean molecualr mass - Equation (1).
+     * @param <T> type of the field elements
+     * @param z altitude (km)
+     * @return mean molecular mass
+     */
+    private static <T extends RealFieldElement<T>> T mBar(final T z) {
+        final T dz = z.subtract(100.);
+        T amb = z.getField().getZero().add(CMB[6]);
+        for (int i = 5; i >= 0; --i) {
+            amb = dz.multiply(amb).add(CMB[i]);
+        }
+        return amb;
+    }
+
+    /** Evaluates the local temperature, Eq. (10) or (13) depending on altitude.
+     * @param <T> type of the field elements
+     * @param z altitude
+     * @param tc tc array
+     * @return temperature profile
+     */
+    private static <T extends RealFieldElement<T>> T localTemp(final T z, final T[] tc) {
+        final T dz = z.subtract(125.);
+        if (dz.getReal() <= 0.) {
+            return dz.multiply(-9.8204695e-6).subtract(7.3039742e-4).multiply(dz).multiply(dz).add(1.0).
+                   multiply(dz).multiply(tc[1]).add(tc[0]);
+        } else {
+            return tc[2].multiply(tc[3].multiply(dz).multiply(dz.pow(2.5).multiply(4.5e-6).add(1)).atan()).
+                   add(tc[0]);
+        }
+    }
+
+    /** Evaluates the gravity at the altitude - Equation (8).
+     * @param <T> type of the field elements
+     * @param z altitude (km)
+     * @return the gravity (m/s2)
+     */
+    private static <T extends RealFieldElement<T>> T gravity(final T z) {
+        final T tmp = z.divide(EARTH_RADIUS).add(1.0);
+        return tmp.multiply(tmp).reciprocal().multiply(Constants.G0_STANDARD_GRAVITY);
+    }
+
+    /** Compute the semiannual amplitude of the semi-annual variation (delta log(rho)).
+     * @param <T> type of the field elements
+     * @param alt height (km)
+     * @param f10B average 81-day centered f10
+     * @param s10B average 81-day centered s10
+     * @param xm10B average 81-day centered xn10
+     * @return semiannual amplitude
+     */
+    private static <T extends RealFieldElement<T>> T semian08Amplitude(final T alt, final double f10B,
+                                                                       final double s10B, final double xm10B) {
+
+        final T htz = alt.divide(1000.0);
+
+        // COMPUTE NEW 81-DAY CENTERED SOLAR INDEX FOR FZ
+        final double fsmb = f10B - 0.70 * s10B - 0.04 * xm10B;
+
+        // SEMIANNUAL AMPLITUDE
+        final T fzz = htz.multiply(FZM[3]).add(FZM[2] + FZM[4] * fsmb).multiply(htz).add(FZM[1]).
+                      multiply(fsmb).add(FZM[0]);
+
+        return (fzz.getReal() < 1.0e-6) ? alt.getField().getZero().add(1.0e-6) : fzz;
+
+    }
+
+    /** Get the density grid of the current settings.
+     * <p>
+     * The grid is built outside of the map, by the first caller, the other callers
+     * with the same settings wait for it. A failed build is removed from the map so
+     * that the next caller tries again.
+     * </p>
+     * @return the density grid
+     */
+    private JB2008DensityGrid getDensityGrid() {
+        JB2008DensityGrid grid = lastGrid;
+        if (grid == null) {
+            final String key = gridAltitudeMin + " " + gridAltitudeMax + " " + gridAltitudeStep + " " +
+                               gridTemperatureStep;
+            final FutureTask<JB2008DensityGrid> task = new FutureTask<>(this::buildDensityGrid);
+            FutureTask<JB2008DensityGrid> shared = DENSITY_GRIDS.putIfAbsent(key, task);
+            if (shared == null) {
+                shared = task;
+                task.run();
+            }
+            try {
+                grid = shared.get();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new OrekitException(ie, new DummyLocalizable(ie.getMessage()));
+            } catch (ExecutionException ee) {
+                DENSITY_GRIDS.remove(key, shared);
+                if (ee.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ee.getCause();
+                }
+                throw new OrekitException(ee.getCause(), new DummyLocalizable(ee.getCause().getMessage()));
+            }
+            lastGrid = grid;
+        }
+        return grid;
+    }
+
+    /** Compute a density grid.
+     * @return the density grid
+     */
+    private JB2008DensityGrid buildDensityGrid() {
+        final JB2008DensityGrid grid = new JB2008DensityGrid(GRID_TEMPERATURE_MIN, GRID_TEMPERATURE_MAX,
+                                                             gridTemperatureStep, gridAltitudeMin,
+                                                             gridAltitudeMax, gridAltitudeStep);
+        IntStream.range(0, grid.getAltitudes()).parallel().forEach(i -> {
+            final double altKm = grid.getAltitude(i) / 1000.0;
+            for (int j = 0; j < grid.getTemperatures(); ++j) {
+                final double[] aln = integrate(grid.getTemperature(j), altKm).aln;
+                double sumnm = 0.0;
+                for (int k = 0; k < 6; ++k) {
+                    sumnm += FastMath.exp(aln[k]) * AMW[k];
+                }
+                grid.setDensity(i, j, sumnm / AVOGAD);
+            }
+        });
+        return grid;
+    }
+
+    /** Compute the Sun position in the Earth body frame.
+     * @param date current date
+     * @return the Sun geodetic position
+     * @exception OrekitException if the Sun position cannot be computed
+     */
+    private GeodeticPoint computeSun(final AbsoluteDate date)
+        throws OrekitException {
+        final Frame ecef = earth.getBodyFrame();
+        final Vector3D sunPos = sun.getPVCoordinates(date, ecef).getPosition();
+        return earth.transform(sunPos, ecef, date);
+    }
+
+    /** Sun position at the boundaries of one bucket of the Sun position cache. */
+    private class SunBucket {
+
+        /** Index of the bucket from J2000. */
+        private final long index;
+
+        /** Start of the bucket. */
+        private final AbsoluteDate start;
+
+        /** Sun longitude at the start of the bucket (radians). */
+        private final double longitude;
+
+        /** Sun longitude change over the bucket (radians). */
+        private final double longitudeChange;
+
+        /** Sun latitude at the start of the bucket (radians). */
+        private final double latitude;
+
+        /** Sun latitude change over the bucket (radians). */
+        private final double latitudeChange;
+
+        /** Simple constructor.
+         * @param index index of the bucket from J2000
+         * @param start start of the bucket
+         * @exception OrekitException if the Sun position cannot be computed
+         */
+        SunBucket(final long index, final AbsoluteDate start)
+            throws OrekitException {
+            final GeodeticPoint first = computeSun(start);
+            final GeodeticPoint last  = computeSun(start.shiftedBy(sunCacheStep));
+            this.index           = index;
+            this.start           = start;
+            this.longitude       = first.getLongitude();
+            this.longitudeChange = MathUtils.normalizeAngle(last.getLongitude() - first.getLongitude(), 0.0);
+            this.latitude        = first.getLatitude();
+            this.latitudeChange  = last.getLatitude() - first.getLatitude();
+        }
+
+    }
+
+    /** Terms of the model depending only on the date. */
+    private static class Epoch {
+
+        /** Right Ascension of Sun (radians). */
+        private final double sunRA;
+
+        /** Declination of Sun (radians). */
+        private final double sunDecli;
+
+        /** 10.7-cm Solar flux. */
+        private final double f10;
+
+        /** 10.7-cm Solar Flux, averaged 81-day centered. */
+        private final double f10B;
+
+        /** UV 81-day averaged centered index. */
+        private final double s10B;
+
+        /** MG2 81-day ave. centered index. */
+        private final double xm10B;
+
+        /** Temperature change computed from Dst index. */
+        private final double dstdtc;
+
+        /** Nighttime minimum global exospheric temperature, Equation (14). */
+        private final double tsubc;
+
+        /** Seasonal term of Equation (24). */
+        private final double seasonal;
+
+        /** Semiannual phase function of Equation (23). */
+        private final double semiannualPhase;
+
+        /** Simple constructor.
+         * @param dateMJD date and time, in modified julian days and fraction
+         * @param sunRA Right Ascension of Sun (radians)
+         * @param sunDecli Declination of Sun (radians)
+         * @param f10 10.7-cm Solar flux
+         * @param f10B 10.7-cm Solar Flux, averaged 81-day centered on the input time
+         * @param s10 EUV index (26-34 nm) scaled to F10
+         * @param s10B UV 81-day averaged centered index
+         * @param xm10 MG2 index scaled to F10
+         * @param xm10B MG2 81-day ave. centered index
+         * @param y10 Solar X-Ray & Lya index scaled to F10
+         * @param y10B Solar X-Ray & Lya 81-day ave. centered index
+         * @param dstdtc Temperature change computed from Dst index
+         */
+        Epoch(final double dateMJD, final double sunRA, final double sunDecli,
+              final double f10, final double f10B, final double s10,
+              final double s10B, final double xm10, final double xm10B,
+              final double y10, final double y10B, final double dstdtc) {
+
+            this.sunRA    = sunRA;
+            this.sunDecli = sunDecli;
+            this.f10      = f10;
+            this.f10B     = f10B;
+            this.s10B     = s10B;
+            this.xm10B    = xm10B;
+            this.dstdtc   = dstdtc;
+
+            // Equation (14)
+            final double fn  = FastMath.min(1.0, FastMath.pow(f10B / 240., 0.25));
+            final double fsb = f10B * fn + s10B * (1. - fn);
+            this.tsubc = 392.4 + 3.227 * fsb + 0.298 * (f10 - f10B) + 2.259 * (s10 - s10B) +
+                         0.312 * (xm10 - xm10B) + 0.178 * (y10 - y10B);
+
+            // Equation (24) - J70 Seasonal-Latitudinal Variation
+            final double capPhi = ((dateMJD - 36204.0) / 365.2422) % 1;
+            this.seasonal = FastMath.sin(MathUtils.TWO_PI * capPhi + 1.72);
+
+            // Equation (23) - semiannual variation
+            this.semiannualPhase = semian08Phase(dayOfYear(dateMJD), f10B, s10B, xm10B);
+        }
+
+    }
+
+    /** Number density logarithms and temperature at the input position, before the date corrections. */
+    private static class Profile {
+
+        /** Natural logarithms of the number densities of N2, O2, O, Ar, He and H. */
+        private final double[] aln;
+
+        /** Temperature at input position (deg K). */
+        private final double tlocal;
+
+        /** Height of the last integration node (km). */
+        private final double z;
+
+        /** Simple constructor.
+         * @param aln natural logarithms of the number densities
+         * @param tlocal temperature at input position (deg K)
+         * @param z height of the last integration node (km)
+         */
+        Profile(final double[] aln, final double tlocal, final double z) {
+            this.aln    = aln;
+            this.tlocal = tlocal;
+            this.z      = z;
+        }
+
+    }
+
+    /** Number density logarithms at the input position, before the date corrections.
+     * @param <T> type of the field elements
+     */
+    private static class FieldProfile<T extends RealFieldElement<T>> {
+
+        /** Natural logarithms of the number densities of N2, O2, O, Ar, He and H. */
+        private final T[] aln;
+
+        /** Height of the last integration node (km). */
+        private final double z;
+
+        /** Simple constructor.
+         * @param aln natural logarithms of the number densities
+         * @param z height of the last integration node (km)
+         */
+        FieldProfile(final T[] aln, final double z) {
+            this.aln = aln;
+            this.z   = z;
+        }
+
     }
 
 }
@@ -0,0 +1,131 @@
+
+package eu.esa.orbiprotester.orekitCustom;
+
+import org.hipparchus.util.FastMath;
+
+/** Grid of the JB2008 density before the date corrections, over exospheric temperature and altitude.
+ * <p>
+ * The logarithm of the density is stored at the nodes and interpolated linearly along
+ * both axes, which is exponential interpolation of the density in altitude. Instances
+ * of this class are immutable once filled by {@link JB2008}.
+ * </p>
+ * @see JB2008#setDensityGrid(double, double, double, double)
+ */
+class JB2008DensityGrid {
+
+    /** Exospheric temperature of the first node (deg K). */
+    private final double temperatureMin;
+
+    /** Exospheric temperature spacing of the nodes (deg K). */
+    private final double temperatureStep;
+
+    /** Number of exospheric temperature nodes. */
+    private final int temperatures;
+
+    /** Altitude of the first node (m). */
+    private final double altitudeMin;
+
+    /** Altitude spacing of the nodes (m). */
+    private final double altitudeStep;
+
+    /** Number of altitude nodes. */
+    private final int altitudes;
+
+    /** Logarithm of the density at the nodes, temperature varying fastest. */
+    private final double[] logDensity;
+
+    /** Simple constructor.
+     * <p>
+     * The spacings are adjusted so that the nodes cover exactly the ranges.
+     * </p>
+     * @param temperatureMin lowest exospheric temperature (deg K)
+     * @param temperatureMax highest exospheric temperature (deg K)
+     * @param temperatureStep maximum exospheric temperature spacing of the nodes (deg K)
+     * @param altitudeMin lowest altitude (m)
+     * @param altitudeMax highest altitude (m)
+     * @param altitudeStep maximum altitude spacing of the nodes (m)
+     */
+    JB2008DensityGrid(final double temperatureMin, final double temperatureMax, final double temperatureStep,
+                      final double altitudeMin, final double altitudeMax, final double altitudeStep) {
+        this.temperatures    = 1 + FastMath.max(1, (int) FastMath.ceil((temperatureMax - temperatureMin) / temperatureStep));
+        this.temperatureMin  = temperatureMin;
+        this.temperatureStep = (temperatureMax - temperatureMin) / (temperatures - 1);
+        this.altitudes       = 1 + FastMath.max(1, (int) FastMath.ceil((altitudeMax - altitudeMin) / altitudeStep));
+        this.altitudeMin     = altitudeMin;
+        this.altitudeStep    = (altitudeMax - altitudeMin) / (altitudes - 1);
+        this.logDensity      = new double[altitudes * temperatures];
+    }
+
+    /** Get the number of exospheric temperature nodes.
+     * @return number of exospheric temperature nodes
+     */
+    int getTemperatures() {
+        return temperatures;
+    }
+
+    /** Get the number of altitude nodes.
+     * @return number of altitude nodes
+     */
+    int getAltitudes() {
+        return altitudes;
+    }
+
+    /** Get the exospheric temperature of a node.
+     * @param j exospheric temperature index
+     * @return exospheric temperature (deg K)
+     */
+    double getTemperature(final int j) {
+        return temperatureMin + j * temperatureStep;
+    }
+
+    /** Get the altitude of a node.
+     * @param i altitude index
+     * @return altitude (m)
+     */
+    double getAltitude(final int i) {
+        return altitudeMin + i * altitudeStep;
+    }
+
+    /** Set the density at a node.
+     * @param i altitude index
+     * @param j exospheric temperature index
+     * @param density density (kg/m³)
+     */
+    void setDensity(final int i, final int j, final double density) {
+        logDensity[i * temperatures + j] = FastMath.log(density);
+    }
+
+    /** Check if a point is inside the grid.
+     * @param temperature local exospheric temperature (deg K)
+     * @param altitude altitude (m)
+     * @return true if the point is inside the grid
+     */
+    boolean contains(final double temperature, final double altitude) {
+        return temperature >= temperatureMin && temperature <= getTemperature(temperatures - 1) &&
+               altitude >= altitudeMin && altitude <= getAltitude(altitudes - 1);
+    }
+
+    /** Interpolate the logarithm of the density.
+     * @param temperature local exospheric temperature (deg K), inside the grid
+     * @param altitude altitude (m), inside the grid
+     * @return logarithm of the density (kg/m³)
+     */
+    double interpolate(final double temperature, final double altitude) {
+
+        final double u  = (altitude - altitudeMin) / altitudeStep;
+        final int    i  = FastMath.min(altitudes - 2, (int) u);
+        final double fu = u - i;
+
+        final double v  = (temperature - temperatureMin) / temperatureStep;
+        final int    j  = FastMath.min(temperatures - 2, (int) v);
+        final double fv = v - j;
+
+        final int    n    = i * temperatures + j;
+        final double low  = logDensity[n] + fv * (logDensity[n + 1] - logDensity[n]);
+        final double high = logDensity[n + temperatures] +
+                            fv * (logDensity[n + temperatures + 1] - logDensity[n + temperatures]);
+
+        return low + fu * (high - low);
+    }
+
+}
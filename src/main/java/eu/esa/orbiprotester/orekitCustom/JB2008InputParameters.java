@@ -96,4 +96,19 @@ public interface JB2008InputParameters extends Serializable {
      */
     double getDSTDTC(AbsoluteDate date) throws OrekitException;
 
+    /** Get all the indices at once.
+     * <p>The default implementation calls the individual getters, implementations
+     * may override it to share the date conversion and cache the indices.</p>
+     * @param date the current date
+     * @return the indices at the date
+     * @exception OrekitException if the date is out of range of available data
+     */
+    default JB2008SpaceWeather getSpaceWeather(AbsoluteDate date) throws OrekitException {
+        return new JB2008SpaceWeather(getF10(date), getF10B(date),
+                                      getS10(date), getS10B(date),
+                                      getXM10(date), getXM10B(date),
+                                      getY10(date), getY10B(date),
+                                      getDSTDTC(date));
+    }
+
 }
@@ -0,0 +1,56 @@
+
+package eu.esa.orbiprotester.orekitCustom;
+
+import java.io.Serializable;
+
+/** Density and temperatures computed by the JB2008 atmosphere model at one position.
+ * <p>Instances of this class are immutable.</p>
+ * @see JB2008#computeDensity(org.orekit.time.AbsoluteDate, org.hipparchus.geometry.euclidean.threed.Vector3D, org.orekit.frames.Frame)
+ */
+public class JB2008Result implements Serializable {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20261018L;
+
+    /** Total mass-density at input position (kg/m³). */
+    private final double density;
+
+    /** Exospheric temperature above input position (deg K). */
+    private final double exosphericTemp;
+
+    /** Temperature at input position (deg K). */
+    private final double localTemp;
+
+    /** Simple constructor.
+     * @param density total mass-density at input position (kg/m³)
+     * @param exosphericTemp exospheric temperature above input position (deg K)
+     * @param localTemp temperature at input position (deg K)
+     */
+    public JB2008Result(final double density, final double exosphericTemp, final double localTemp) {
+        this.density        = density;
+        this.exosphericTemp = exosphericTemp;
+        this.localTemp      = localTemp;
+    }
+
+    /** Get the total mass-density at input position.
+     * @return the density (kg/m³)
+     */
+    public double getDensity() {
+        return density;
+    }
+
+    /** Get the exospheric temperature above input position.
+     * @return the exospheric temperature (deg K)
+     */
+    public double getExosphericTemp() {
+        return exosphericTemp;
+    }
+
+    /** Get the temperature at input position.
+     * @return the local temperature (deg K)
+     */
+    public double getLocalTemp() {
+        return localTemp;
+    }
+
+}
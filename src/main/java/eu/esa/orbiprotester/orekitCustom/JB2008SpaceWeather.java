@@ -0,0 +1,132 @@
+
+package eu.esa.orbiprotester.orekitCustom;
+
+import java.io.Serializable;
+
+/** Solar and magnetic activity indices needed by the JB2008 atmosphere model at one date.
+ * <p>Instances of this class are immutable.</p>
+ * @see JB2008InputParameters#getSpaceWeather(org.orekit.time.AbsoluteDate)
+ */
+public class JB2008SpaceWeather implements Serializable {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20261018L;
+
+    /** Instantaneous solar flux index F10.7. */
+    private final double f10;
+
+    /** Mean solar flux F10.7B index. */
+    private final double f10B;
+
+    /** EUV S10 index. */
+    private final double s10;
+
+    /** Mean EUV S10B index. */
+    private final double s10B;
+
+    /** MG2 index. */
+    private final double xm10;
+
+    /** Mean MG2 index. */
+    private final double xm10B;
+
+    /** Solar X-Ray & Lya index. */
+    private final double y10;
+
+    /** Solar X-Ray & Lya 81-day ave. centered index. */
+    private final double y10B;
+
+    /** Temperature change computed from Dst index. */
+    private final double dstdtc;
+
+    /** Simple constructor.
+     * @param f10 instantaneous solar flux index F10.7
+     * @param f10B mean solar flux F10.7B index
+     * @param s10 EUV S10 index
+     * @param s10B mean EUV S10B index
+     * @param xm10 MG2 index
+     * @param xm10B mean MG2 index
+     * @param y10 Solar X-Ray & Lya index
+     * @param y10B Solar X-Ray & Lya 81-day ave. centered index
+     * @param dstdtc temperature change computed from Dst index
+     */
+    public JB2008SpaceWeather(final double f10, final double f10B,
+                              final double s10, final double s10B,
+                              final double xm10, final double xm10B,
+                              final double y10, final double y10B,
+                              final double dstdtc) {
+        this.f10    = f10;
+        this.f10B   = f10B;
+        this.s10    = s10;
+        this.s10B   = s10B;
+        this.xm10   = xm10;
+        this.xm10B  = xm10B;
+        this.y10    = y10;
+        this.y10B   = y10B;
+        this.dstdtc = dstdtc;
+    }
+
+    /** Get the instantaneous solar flux index F10.7.
+     * @return the F10.7 index
+     */
+    public double getF10() {
+        return f10;
+    }
+
+    /** Get the mean solar flux F10.7B index.
+     * @return the F10.7B index
+     */
+    public double getF10B() {
+        return f10B;
+    }
+
+    /** Get the EUV S10 index.
+     * @return the S10 index
+     */
+    public double getS10() {
+        return s10;
+    }
+
+    /** Get the mean EUV S10B index.
+     * @return the S10B index
+     */
+    public double getS10B() {
+        return s10B;
+    }
+
+    /** Get the MG2 index.
+     * @return the MG2 index
+     */
+    public double getXM10() {
+        return xm10;
+    }
+
+    /** Get the mean MG2 index.
+     * @return the mean MG2 index
+     */
+    public double getXM10B() {
+        return xm10B;
+    }
+
+    /** Get the Solar X-Ray & Lya index.
+     * @return the Solar X-Ray & Lya index
+     */
+    public double getY10() {
+        return y10;
+    }
+
+    /** Get the Solar X-Ray & Lya 81-day ave. centered index.
+     * @return the Solar X-Ray & Lya 81-day ave. centered index
+     */
+    public double getY10B() {
+        return y10B;
+    }
+
+    /** Get the temperature change computed from Dst index.
+     * @return the temperature change
+     */
+    public double getDSTDTC() {
+        return dstdtc;
+    }
+
+}
@@ -1,17 +1,36 @@
 package eu.esa.orbiprotester.orekitCustom;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.hipparchus.exception.DummyLocalizable;
+import org.hipparchus.util.FastMath;
 import org.orekit.data.DataLoader;
 import org.orekit.data.DataProvidersManager;
 import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitInternalError;
+import org.orekit.errors.OrekitMessages;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.DateComponents;
 import org.orekit.time.TimeComponents;
@@ -26,35 +45,44 @@ import org.orekit.utils.Constants;
 @SuppressWarnings("serial")
 public class SolarIndicesJB2008 implements JB2008InputParameters{
 	
-	/** Dates. */
-    private ArrayList<Double> D1950 = new ArrayList<Double>();
+	/** Date of the first daily sample, in days since 1950 JAN 0 12:00:00.000. */
+    private double D1950;
     
     /** F10 data. */
-    private ArrayList<Double> F10 = new ArrayList<Double>();
+    private double[] F10;
 
     /** F81c data. */
-    private ArrayList<Double> F81c = new ArrayList<Double>();
+    private double[] F81c;
 
     /** S10 data. */
-    private ArrayList<Double> S10 = new ArrayList<Double>();
+    private double[] S10;
 
     /** S81c data. */
-    private ArrayList<Double> S81c = new ArrayList<Double>();
+    private double[] S81c;
 
     /** M10 data. */
-    private ArrayList<Double> M10 = new ArrayList<Double>();
+    private double[] M10;
 
     /** M81c data. */
-    private ArrayList<Double> M81c = new ArrayList<Double>();
+    private double[] M81c;
 
     /** Y10 data. */
-    private ArrayList<Double> Y10 = new ArrayList<Double>();
+    private double[] Y10;
 
     /** Y10B data. */
-    private ArrayList<Double> Y81c = new ArrayList<Double>();
+    private double[] Y81c;
     
-    /** DSTDTC data. */
-    private ArrayList<Double> DSTDTC = new ArrayList<Double>();
+    /** DSTDTC data, hourly samples starting at 0h of the first daily sample. */
+    private double[] DSTDTC;
+    
+    /** Error of the cache file writing, null if the cache file was read or written. */
+    private IOException cacheError = null;
+    
+    /** If true the indices are linearly interpolated between the samples. */
+    private boolean interpolation = false;
+    
+    /** Last indices returned by {@link #getSpaceWeather(AbsoluteDate)}, with their day and hour. */
+    private transient volatile SpaceWeatherMemo memo = null;
     
     /** The available data range minimum date */
     AbsoluteDate MinDate = null;
@@ -62,6 +90,9 @@ public class SolarIndicesJB2008 implements JB2008InputParameters{
     /** The available data range maximum date */
     AbsoluteDate MaxDate = null;
     
+    /** Identifier of the binary cache files ("JB08"). */
+    private static final int CACHE_MAGIC = 0x4A423038;
+    
     /** Default regular expression for JB2008 solar indices file from SET. */
     public static final String SOLAR_INDICES_FILENAME = "^(?:solfsmy|SOLFSMY)\\.(?:txt|TXT)$";
     
@@ -69,6 +100,10 @@ public class SolarIndicesJB2008 implements JB2008InputParameters{
     public static final String GEOMAGNETIC_STORM_INDICES_FILENAME = "^(?:dtcfile|DTCFILE)\\.(?:txt|TXT)$";
     
     /** Simple constructor.
+     * <p>
+     * The series are stored in primitive arrays, after the removal of the lag days.
+     * The available data range is the range covered by all the lagged series.
+     * </p>
      * @exception OrekitException
      * @throws FileNotFoundException 
      */
@@ -80,24 +115,227 @@ public class SolarIndicesJB2008 implements JB2008InputParameters{
     	DTCFileLoader DTCFileLoader = new DTCFileLoader();
     	dataProvidersManager.feed(GEOMAGNETIC_STORM_INDICES_FILENAME, DTCFileLoader);
     	
-    	// The available data range minimum and maximum date
-    	MinDate = SOLFSMYLoader.MinDate;
-    	MaxDate = SOLFSMYLoader.MaxDate;
+    	setSeries(SOLFSMYLoader, DTCFileLoader);
+    	setDateRange();
+    }
+    
+    /** Constructor using a binary cache of the indices.
+     * <p>
+     * The text files are still read through the data providers manager, but only to hash
+     * their content. If a cache file named after this hash exists in the cache folder, it is
+     * memory-mapped and the series are copied from it without parsing the text files.
+     * Otherwise the text files are parsed and the cache file is written for the next runs.
+     * A cache file is never modified once written, so it can be read by concurrent runs.
+     * If the cache file cannot be written, the parsed series are used and the error is
+     * available from {@link #getCacheError()}.
+     * </p>
+     * @param dataProvidersManager provides the solar and geomagnetic indices files
+     * @param cacheFolder folder of the binary cache files, created if needed
+     * @exception OrekitException if the files cannot be parsed
+     * @throws IOException if the files cannot be read
+     */
+    public SolarIndicesJB2008(DataProvidersManager dataProvidersManager, File cacheFolder)
+    		throws OrekitException, IOException {
+    	
+    	RawLoader SOLFSMYFile = new RawLoader();
+    	dataProvidersManager.feed(SOLAR_INDICES_FILENAME, SOLFSMYFile);
+    	
+    	RawLoader DTCFile = new RawLoader();
+    	dataProvidersManager.feed(GEOMAGNETIC_STORM_INDICES_FILENAME, DTCFile);
+    	
+    	final File cacheFile = new File(cacheFolder, "jb2008-" + hash(SOLFSMYFile.data, DTCFile.data) + ".bin");
+    	if (!readCache(cacheFile)) {
+    		
+    		SOLFSMYLoader SOLFSMYLoader = new SOLFSMYLoader();
+    		DTCFileLoader DTCFileLoader = new DTCFileLoader();
+    		try {
+    			SOLFSMYLoader.loadData(new ByteArrayInputStream(SOLFSMYFile.data), SOLFSMYFile.name);
+    			DTCFileLoader.loadData(new ByteArrayInputStream(DTCFile.data), DTCFile.name);
+    		} catch (ParseException e) {
+    			throw new OrekitException(e, new DummyLocalizable(e.getMessage()));
+    		}
+    		
+    		setSeries(SOLFSMYLoader, DTCFileLoader);
+    		try {
+    			writeCache(cacheFile);
+    		} catch (IOException e) {
+    			// the series are already parsed, the next runs will parse the files again
+    			cacheError = e;
+    		}
+    	}
+    	setDateRange();
+    }
+    
+    /** Set the series from the parsed files.
+     * @param SOLFSMYLoader the parsed solar indices file
+     * @param DTCFileLoader the parsed geomagnetic storm indices file
+     * @exception OrekitException if days are missing in the solar indices file
+     */
+    private void setSeries(SOLFSMYLoader SOLFSMYLoader, DTCFileLoader DTCFileLoader) throws OrekitException {
+    	
+    	// the daily samples must be contiguous for the indexed access
+    	for (int i = 1; i < SOLFSMYLoader.TC.size(); i++) {
+    		if (SOLFSMYLoader.TC.get(i) - SOLFSMYLoader.TC.get(i - 1) != 1.0) {
+    			throw new OrekitException(new DummyLocalizable("Missing days in the solar indices file."));
+    		}
+    	}
     	
-    	D1950.addAll(SOLFSMYLoader.TC.subList(5, SOLFSMYLoader.TC.size()));
+    	D1950 = SOLFSMYLoader.TC.get(5);
     	// 1 day lag for F10 and S10
-    	F10.addAll(SOLFSMYLoader.F10.subList(4, SOLFSMYLoader.F10.size()-1));
-    	F81c.addAll(SOLFSMYLoader.F81c.subList(4, SOLFSMYLoader.F81c.size()-1));
-    	S10.addAll(SOLFSMYLoader.S10.subList(4, SOLFSMYLoader.S10.size()-1));
-    	S81c.addAll(SOLFSMYLoader.S81c.subList(4, SOLFSMYLoader.S81c.size()-1));
+    	F10  = toArray(SOLFSMYLoader.F10, 4, SOLFSMYLoader.F10.size() - 1);
+    	F81c = toArray(SOLFSMYLoader.F81c, 4, SOLFSMYLoader.F81c.size() - 1);
+    	S10  = toArray(SOLFSMYLoader.S10, 4, SOLFSMYLoader.S10.size() - 1);
+    	S81c = toArray(SOLFSMYLoader.S81c, 4, SOLFSMYLoader.S81c.size() - 1);
     	// 2 day lag for M10
-    	M10.addAll(SOLFSMYLoader.M10.subList(3, SOLFSMYLoader.M10.size()-2));
-    	M81c.addAll(SOLFSMYLoader.M81c.subList(3, SOLFSMYLoader.M81c.size()-2));
+    	M10  = toArray(SOLFSMYLoader.M10, 3, SOLFSMYLoader.M10.size() - 2);
+    	M81c = toArray(SOLFSMYLoader.M81c, 3, SOLFSMYLoader.M81c.size() - 2);
     	// 5 day lag for Y10
-    	Y10.addAll(SOLFSMYLoader.Y10.subList(0, SOLFSMYLoader.Y10.size()-5));
-    	Y81c.addAll(SOLFSMYLoader.Y81c.subList(0, SOLFSMYLoader.Y81c.size()-5));
+    	Y10  = toArray(SOLFSMYLoader.Y10, 0, SOLFSMYLoader.Y10.size() - 5);
+    	Y81c = toArray(SOLFSMYLoader.Y81c, 0, SOLFSMYLoader.Y81c.size() - 5);
     	// delete first 5 days => 5 * 24 records
-    	DSTDTC.addAll(DTCFileLoader.DSTDTC.subList(120, DTCFileLoader.DSTDTC.size()));
+    	DSTDTC = toArray(DTCFileLoader.DSTDTC, 120, DTCFileLoader.DSTDTC.size());
+    }
+    
+    /** Set the available data range from the series.
+     * <p>
+     * From the first to the last daily sample, within the hourly samples.
+     * </p>
+     */
+    private void setDateRange() {
+    	final double last = FastMath.min(D1950 + F10.length - 1, FastMath.floor(D1950) + (DSTDTC.length - 1) / 24.0);
+    	MinDate = d1950ToDate(D1950);
+    	MaxDate = d1950ToDate(last);
+    }
+    
+    /** Read the series from a binary cache file.
+     * @param file the cache file
+     * @return true if the series were read, false if the file does not exist or is invalid
+     */
+    private boolean readCache(File file) {
+    	
+    	if (!file.isFile()) {
+    		return false;
+    	}
+    	try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+    		
+    		final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    		if (buffer.remaining() < 24 || buffer.getInt() != CACHE_MAGIC) {
+    			return false;
+    		}
+    		final double first = buffer.getDouble();
+    		final int daily    = buffer.getInt();
+    		final int hourly   = buffer.getInt();
+    		if (daily < 1 || hourly < 1 || buffer.remaining() != 8L * (8L * daily + hourly)) {
+    			return false;
+    		}
+    		
+    		final DoubleBuffer values = buffer.asDoubleBuffer();
+    		final double[][] series = new double[8][daily];
+    		for (double[] s : series) {
+    			values.get(s);
+    		}
+    		final double[] dstdtc = new double[hourly];
+    		values.get(dstdtc);
+    		
+    		D1950  = first;
+    		F10    = series[0];
+    		F81c   = series[1];
+    		S10    = series[2];
+    		S81c   = series[3];
+    		M10    = series[4];
+    		M81c   = series[5];
+    		Y10    = series[6];
+    		Y81c   = series[7];
+    		DSTDTC = dstdtc;
+    		return true;
+    		
+    	} catch (IOException e) {
+    		// unreadable cache file, the text files are parsed again
+    		return false;
+    	}
+    }
+    
+    /** Write the series in a binary cache file.
+     * @param file the cache file
+     * @throws IOException if the file cannot be written
+     */
+    private void writeCache(File file) throws IOException {
+    	
+    	final File folder = file.getParentFile();
+    	if (folder != null && !folder.isDirectory() && !folder.mkdirs()) {
+    		throw new IOException("Cannot create the solar indices cache folder " + folder);
+    	}
+    	
+    	// written in a temporary file first, so a concurrent run never maps a partial file
+    	final File temporary = File.createTempFile("jb2008-", ".tmp", folder);
+    	boolean moved = false;
+    	try {
+    		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+    			out.writeInt(CACHE_MAGIC);
+    			out.writeDouble(D1950);
+    			out.writeInt(F10.length);
+    			out.writeInt(DSTDTC.length);
+    			for (double[] series : new double[][] {F10, F81c, S10, S81c, M10, M81c, Y10, Y81c, DSTDTC}) {
+    				for (double value : series) {
+    					out.writeDouble(value);
+    				}
+    			}
+    		}
+    		try {
+    			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    		} catch (AtomicMoveNotSupportedException e) {
+    			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    		}
+    		moved = true;
+    	} finally {
+    		if (!moved) {
+    			temporary.delete();
+    		}
+    	}
+    }
+    
+    /** Hash of the content of the text files, used as cache file name.
+     * @param files the content of the files
+     * @return the hexadecimal SHA-256 hash
+     */
+    private static String hash(byte[]... files) {
+    	try {
+    		final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    		for (byte[] file : files) {
+    			digest.update(file);
+    		}
+    		final StringBuilder hex = new StringBuilder();
+    		for (byte b : digest.digest()) {
+    			hex.append(String.format("%02x", b));
+    		}
+    		return hex.toString();
+    	} catch (NoSuchAlgorithmException e) {
+    		// SHA-256 is available on every Java platform
+    		throw new OrekitInternalError(e);
+    	}
+    }
+    
+    /** Select the interpolation of the indices.
+     * @param interpolation if true the indices are linearly interpolated between the daily
+     * (hourly for DSTDTC) samples, if false (default) the sample of the current day (hour) is used
+     */
+    public void setInterpolation(final boolean interpolation) {
+    	this.interpolation = interpolation;
+    	this.memo          = null;
+    }
+    
+    /** Get the error of the cache file writing.
+     * @return the error, null if the cache file was read or written
+     */
+    public IOException getCacheError() {
+    	return cacheError;
+    }
+    
+    /** Check if the indices are interpolated.
+     * @return true if the indices are linearly interpolated between the samples
+     */
+    public boolean isInterpolation() {
+    	return interpolation;
     }
     
 	@Override
@@ -112,79 +350,185 @@ public class SolarIndicesJB2008 implements JB2008InputParameters{
 
 	@Override
 	public double getF10(AbsoluteDate date) throws OrekitException {
-		return F10.get(computeSolIndex(date));
+		return getDailyValue(F10, date);
 	}
 
 	@Override
 	public double getF10B(AbsoluteDate date) throws OrekitException {
-		return F81c.get(computeSolIndex(date));
+		return getDailyValue(F81c, date);
 	}
 
 	@Override
 	public double getS10(AbsoluteDate date) throws OrekitException {
-		return S10.get(computeSolIndex(date));
+		return getDailyValue(S10, date);
 	}
 
 	@Override
 	public double getS10B(AbsoluteDate date) throws OrekitException {
-		return S81c.get(computeSolIndex(date));
+		return getDailyValue(S81c, date);
 	}
 
 	@Override
 	public double getXM10(AbsoluteDate date) throws OrekitException {
-		return M10.get(computeSolIndex(date));
+		return getDailyValue(M10, date);
 	}
 
 	@Override
 	public double getXM10B(AbsoluteDate date) throws OrekitException {
-		return M81c.get(computeSolIndex(date));
+		return getDailyValue(M81c, date);
 	}
 
 	@Override
 	public double getY10(AbsoluteDate date) throws OrekitException {
-		return Y10.get(computeSolIndex(date));
+		return getDailyValue(Y10, date);
 	}
 
 	@Override
 	public double getY10B(AbsoluteDate date) throws OrekitException {
-		return Y81c.get(computeSolIndex(date));
+		return getDailyValue(Y81c, date);
 	}
 
 	@Override
 	public double getDSTDTC(AbsoluteDate date) throws OrekitException {
-
-		return DSTDTC.get(computeDtcIndex(date));
+		
+		// hours since 0h of the first daily sample
+		final double offset = (computeD1950(date) - FastMath.floor(D1950)) * 24;
+		return getValue(DSTDTC, offset, date);
 	}
 	
-	private int computeSolIndex (AbsoluteDate date) throws OrekitException{
+	/** {@inheritDoc}
+	 * <p>
+	 * The date conversion is shared by all the indices. Without interpolation the indices
+	 * only change from one daily (hourly for DSTDTC) sample to the next, so the last indices
+	 * are kept and returned again as long as the date stays on the same day and hour samples.
+	 * </p>
+	 */
+	@Override
+	public JB2008SpaceWeather getSpaceWeather(AbsoluteDate date) throws OrekitException {
 		
-		// compute modified julian days date
-        double dateMJD   = date.durationFrom(AbsoluteDate.MODIFIED_JULIAN_EPOCH) / Constants.JULIAN_DAY;
-        double dateD1950 = dateMJD - 33281.0;
-        
-        int index = (int) (dateD1950 - D1950.get(0));
-        if (index < 0){
-        	throw new OrekitException(new DummyLocalizable("Time outside File Start-Stop Time !"));
-        }
+		final double d1950      = computeD1950(date);
+		final double dayOffset  = d1950 - D1950;
+		final double hourOffset = (d1950 - FastMath.floor(D1950)) * 24;
+		
+		if (interpolation) {
+			return computeSpaceWeather(dayOffset, hourOffset, date);
+		}
+		
+		final int day  = (int) FastMath.floor(dayOffset);
+		final int hour = (int) FastMath.floor(hourOffset);
+		final SpaceWeatherMemo last = memo;
+		if (last != null && last.day == day && last.hour == hour) {
+			return last.indices;
+		}
+		
+		final JB2008SpaceWeather indices = computeSpaceWeather(dayOffset, hourOffset, date);
+		memo = new SpaceWeatherMemo(day, hour, indices);
+		return indices;
+	}
+	
+	/** Get all the indices.
+	 * @param dayOffset the offset from the first daily sample, in days
+	 * @param hourOffset the offset from the first hourly sample, in hours
+	 * @param date the current date, for the error message
+	 * @return the indices
+	 * @throws OrekitException if the date is out of range of available data
+	 */
+	private JB2008SpaceWeather computeSpaceWeather(final double dayOffset, final double hourOffset,
+			                                       final AbsoluteDate date) throws OrekitException {
+		return new JB2008SpaceWeather(getValue(F10, dayOffset, date), getValue(F81c, dayOffset, date),
+				                      getValue(S10, dayOffset, date), getValue(S81c, dayOffset, date),
+				                      getValue(M10, dayOffset, date), getValue(M81c, dayOffset, date),
+				                      getValue(Y10, dayOffset, date), getValue(Y81c, dayOffset, date),
+				                      getValue(DSTDTC, hourOffset, date));
+	}
+	
+	/** Get the value of a daily series.
+	 * @param series the series
+	 * @param date the current date
+	 * @return the value at the date
+	 * @throws OrekitException if the date is out of range of available data
+	 */
+	private double getDailyValue(final double[] series, final AbsoluteDate date) throws OrekitException {
+		return getValue(series, computeD1950(date) - D1950, date);
+	}
+	
+	/** Get the value of a series.
+	 * @param series the series
+	 * @param offset the offset from the first sample, in number of samples
+	 * @param date the current date, for the error message
+	 * @return the value at the offset
+	 * @throws OrekitException if the offset is out of range of the series
+	 */
+	private double getValue(final double[] series, final double offset, final AbsoluteDate date) throws OrekitException {
 		
-		return index;
+		final int index = (int) FastMath.floor(offset);
+		if (index < 0 || index >= series.length) {
+			throw new OrekitException(OrekitMessages.NO_SOLAR_ACTIVITY_AT_DATE, date, MinDate, MaxDate);
+		}
+		if (!interpolation || index == series.length - 1) {
+			return series[index];
+		}
+		return series[index] + (offset - index) * (series[index + 1] - series[index]);
 	}
 	
-	private int computeDtcIndex (AbsoluteDate date) throws OrekitException{
+	/** Convert a date to days since 1950 JAN 0 12:00:00.000.
+	 * @param date the date
+	 * @return the number of days
+	 */
+	private static double computeD1950(AbsoluteDate date) {
 		
 		// compute modified julian days date
         double dateMJD   = date.durationFrom(AbsoluteDate.MODIFIED_JULIAN_EPOCH) / Constants.JULIAN_DAY;
-        double dateD1950 = dateMJD - 33281.0;
-        
-        int index = (int) ((dateD1950 - D1950.get(0).intValue()) * 24);
-        if (index < 0){
-        	throw new OrekitException(new DummyLocalizable("Time outside File Start-Stop Time !"));
-        }
-		
-		return index;
+        return dateMJD - 33281.0;
+	}
+	
+	/** Convert days since 1950 JAN 0 12:00:00.000 to a date.
+	 * @param d1950 the number of days
+	 * @return the date
+	 */
+	private static AbsoluteDate d1950ToDate(double d1950) {
+		return AbsoluteDate.MODIFIED_JULIAN_EPOCH.shiftedBy((d1950 + 33281.0) * Constants.JULIAN_DAY);
+	}
+	
+	/** Copy a range of a list in a primitive array.
+	 * @param list the list
+	 * @param from first index
+	 * @param to last index (excluded)
+	 * @return the array
+	 */
+	private static double[] toArray(List<Double> list, int from, int to) {
+		final double[] array = new double[to - from];
+		for (int i = from; i < to; i++) {
+			array[i - from] = list.get(i);
+		}
+		return array;
 	}
 	
 	   
+	/** Indices of one daily and hourly sample. */
+	private static class SpaceWeatherMemo {
+		
+		/** Index of the daily sample. */
+		private final int day;
+		
+		/** Index of the hourly sample. */
+		private final int hour;
+		
+		/** Indices. */
+		private final JB2008SpaceWeather indices;
+		
+		/** Simple constructor.
+		 * @param day index of the daily sample
+		 * @param hour index of the hourly sample
+		 * @param indices indices
+		 */
+		SpaceWeatherMemo(final int day, final int hour, final JB2008SpaceWeather indices) {
+			this.day     = day;
+			this.hour    = hour;
+			this.indices = indices;
+		}
+	}
+	
 	/** Reader for JB2008 solar indices files from SET 
 	 * */
     private class SOLFSMYLoader implements DataLoader{
@@ -273,6 +617,33 @@ public class SolarIndicesJB2008 implements JB2008InputParameters{
     	
     }
     
+    /** Reader keeping the raw content of a file. */
+    private static class RawLoader implements DataLoader {
+    	
+    	/** Name of the file. */
+    	String name = null;
+    	
+    	/** Content of the file. */
+    	byte[] data = null;
+
+		@Override
+		public boolean stillAcceptsData() {
+			return data == null;
+		}
+
+		@Override
+		public void loadData(InputStream input, String name) throws IOException {
+			
+			final ByteArrayOutputStream content = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+			for (int n = input.read(buffer); n >= 0; n = input.read(buffer)) {
+				content.write(buffer, 0, n);
+			}
+			this.name = name;
+			this.data = content.toByteArray();
+		}
+    }
+    
     private class DTCFileLoader implements DataLoader{
     	
     	/** Dates. */
@@ -11,6 +11,7 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Formatter;
 import java.util.LinkedList;
@@ -46,11 +47,9 @@ import org.orekit.attitudes.TabulatedProvider;
 import org.orekit.attitudes.YawCompensation;
 import org.orekit.attitudes.YawSteering;
 import org.orekit.bodies.CelestialBody;
-import org.orekit.bodies.CelestialBodyFactory;
 import org.orekit.bodies.GeodeticPoint;
 import org.orekit.bodies.OneAxisEllipsoid;
-import org.orekit.data.DataProvidersManager;
-import org.orekit.data.DirectoryCrawler;
+import org.orekit.data.LazyLoadedDataContext;
 import org.orekit.errors.OrekitException;
 import org.orekit.forces.BoxAndSolarArraySpacecraft;
 import org.orekit.forces.ForceModel;
@@ -59,24 +58,27 @@ import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
 import org.orekit.forces.gravity.OceanTides;
 import org.orekit.forces.gravity.SolidTides;
 import org.orekit.forces.gravity.ThirdBodyAttraction;
-import org.orekit.forces.gravity.potential.GravityFieldFactory;
 import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
 import org.orekit.forces.gravity.potential.TideSystem;
 import org.orekit.forces.maneuvers.ConstantThrustManeuver;
 import org.orekit.forces.maneuvers.ImpulseManeuver;
-import org.orekit.forces.radiation.AbstractRadiationForceModel;
 import org.orekit.forces.radiation.InfraredContribution;
 import org.orekit.forces.radiation.IsotropicRadiationClassicalConvention;
 import org.orekit.forces.radiation.IsotropicRadiationSingleCoefficient;
 import org.orekit.forces.radiation.RadiationSensitive;
 import org.orekit.forces.radiation.RadiationType;
+import org.orekit.forces.radiation.InfraredFluxMethod;
+import org.orekit.forces.radiation.SolarRadiationConstants;
 import org.orekit.forces.radiation.SolarRadiationPressure;
 import org.orekit.frames.Frame;
-import org.orekit.frames.FramesFactory;
 import org.orekit.frames.LOFType;
 import org.orekit.frames.TopocentricFrame;
 import org.orekit.models.earth.EarthStandardAtmosphereRefraction;
 import org.orekit.models.earth.atmosphere.Atmosphere;
+import org.orekit.models.earth.atmosphere.DTM2000;
+import org.orekit.models.earth.atmosphere.HarrisPriester;
+import org.orekit.models.earth.atmosphere.NRLMSISE00;
+import org.orekit.models.earth.atmosphere.data.CssiSpaceWeatherData;
 import org.orekit.orbits.CartesianOrbit;
 import org.orekit.orbits.CircularOrbit;
 import org.orekit.orbits.EquinoctialOrbit;
@@ -99,12 +101,12 @@ import org.orekit.propagation.events.handlers.StopOnEvent;
 import org.orekit.propagation.numerical.NumericalPropagator;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeScale;
-import org.orekit.time.TimeScalesFactory;
 import org.orekit.utils.AngularDerivativesFilter;
 import org.orekit.utils.Constants;
 import org.orekit.utils.ExtendedPVCoordinatesProvider;
 import org.orekit.utils.IERSConventions;
 import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.ParameterDriver;
 import org.orekit.utils.TimeStampedAngularCoordinates;
 import org.orekit.utils.TimeStampedPVCoordinates;
 
@@ -112,8 +114,10 @@ import eu.esa.orbiprotester.TesterLauncher;
 import eu.esa.orbiprotester.orekitCustom.JB2008;
 import eu.esa.orbiprotester.orekitCustom.SolarIndicesJB2008;
 import eu.esa.orbiprotester.utils.ChartDataHolder;
+import eu.esa.orbiprotester.utils.ForceOutputRecorder;
 import eu.esa.orbiprotester.utils.KeyValueFileParser;
 import eu.esa.orbiprotester.utils.Messages;
+import eu.esa.orbiprotester.utils.OrekitDataContexts;
 
 /** Abstract implementation for a test.
  *
@@ -124,12 +128,21 @@ public abstract class AbstractTestRun implements TestRun {
     /** The time step used for interpolation in variable thrust maneuver simulation. */
     private static final double INTERPOLATION_STEP = 0.1; 
     
+    /** Default name of the CelesTrak space weather file used by DTM2000 and NRLMSISE-00. */
+    private static final String SPACE_WEATHER_FILE = "SpaceWeather-All-v1.2.txt";
+    
     /** The logger. */
     private final Logger logger;
 
     /** The parser for the input test file. */
     private final KeyValueFileParser<ParameterKey> parser;
 
+    /** The orekit data folder. */
+    private File orekitDataFolder;
+
+    /** The Orekit data context of the test, shared by the tests using the same folder. */
+    private LazyLoadedDataContext dataContext;
+
     /** The folder for the output. */
     private final File outputFolder;
 
@@ -218,6 +231,30 @@ public abstract class AbstractTestRun implements TestRun {
     
     protected BoxAndSolarArraySpacecraft spacecraft;
     
+    /** Infrared model used in the propagation. */
+    private InfraredContribution infraredModel;
+    
+    /** Infrared model using the other flux method, null if the validation is disabled. */
+    private InfraredContribution infraredValidationModel;
+    
+    /** JB2008 atmosphere interpolating density grids, null if the exact model is used. */
+    private JB2008 densityGridModel;
+    
+    /** Atmosphere model used by the drag force. */
+    private AtmosphereModel atmosphereModel;
+    
+    /** True if the force models log their accuracy reports when they are set. */
+    private boolean forceReports = true;
+    
+    /** Atmosphere of the drag force, null if drag is disabled. */
+    private Atmosphere atmosphere;
+    
+    /** Drag force, null if drag is disabled. */
+    private ForceModel dragForce;
+    
+    /** Solar radiation pressure force, null if it is disabled. */
+    private ForceModel srpForce;
+    
     
     /** Standard constructor.
      * @param parser the parser for the input test file
@@ -245,15 +282,14 @@ public abstract class AbstractTestRun implements TestRun {
      */
     public void readInputData() throws OrekitException, IOException {
 
-    	String dataFolder = "./data/orekit-data";
-    	if (parser.containsKey(ParameterKey.OREKIT_DATA_FOLDER)) {
-    		dataFolder = parser.getString(ParameterKey.OREKIT_DATA_FOLDER);
-    	}
-    	
         // configure Orekit
-        final File orekitData = getResourceFile(dataFolder);
-        DataProvidersManager.getInstance().clearProviders();
-        DataProvidersManager.getInstance().addProvider(new DirectoryCrawler(orekitData));
+        final File orekitData = getOrekitDataResource();
+        this.orekitDataFolder = orekitData;
+        // each test reads its own data context, the tests with the same folder share one context
+        // which keeps its loaded data; the first context is also the default one of the code
+        // without explicit data context
+        this.dataContext = OrekitDataContexts.getContext(orekitData);
+        OrekitDataContexts.initDefault(orekitData);
     	
         // Get the timescale
         String timeScaleStr = "UTC"; // By default UTC is used
@@ -263,25 +299,25 @@ public abstract class AbstractTestRun implements TestRun {
         
         switch(timeScaleStr) {
             case "UTC":
-                this.ts = TimeScalesFactory.getUTC();
+                this.ts = dataContext.getTimeScales().getUTC();
                 break;
             case "TT":
-                this.ts = TimeScalesFactory.getTT();
+                this.ts = dataContext.getTimeScales().getTT();
                 break;
             case "TAI":
-                this.ts = TimeScalesFactory.getTAI();
+                this.ts = dataContext.getTimeScales().getTAI();
                 break;
             default:
                 throw new IOException("Invalid timescale " + timeScaleStr +". Accepted values are UTC, TT or TAI");
         }
         
         // Check if a central body is defined.
-        this.frame = FramesFactory.getEME2000();
+        this.frame = dataContext.getFrames().getEME2000();
         this.pvFrame = null;
         this.centralBody = null;
         if (parser.containsKey(ParameterKey.CENTRAL_BODY)) {
         	// get the central body
-        	this.centralBody = parser.getCelectialBodies(ParameterKey.CENTRAL_BODY).get(0);
+        	this.centralBody = parser.getCelectialBodies(ParameterKey.CENTRAL_BODY, dataContext.getCelestialBodies()).get(0);
         	
         	// use the inertial frame from the central body as propagation frame
         	this.frame = this.centralBody.getInertiallyOrientedFrame();
@@ -291,10 +327,10 @@ public abstract class AbstractTestRun implements TestRun {
         } else if (parser.containsKey(ParameterKey.ORBIT_FRAME)) {
             // Orbital frame definition
             try {
-                this.frame = parser.getInertialFrame(ParameterKey.ORBIT_FRAME);
+                this.frame = parser.getInertialFrame(ParameterKey.ORBIT_FRAME, dataContext.getFrames());
             } catch (OrekitException e) {
                 // try to get an earth frame
-                this.frame = parser.getEarthFrame(ParameterKey.ORBIT_FRAME);
+                this.frame = parser.getEarthFrame(ParameterKey.ORBIT_FRAME, dataContext.getFrames());
             }
 
             if (!this.frame.isPseudoInertial()) {
@@ -302,17 +338,17 @@ public abstract class AbstractTestRun implements TestRun {
                 // The propagation will use EME2000 while the requested frame will be used only
                 // for representing the position and velocity.
                 this.pvFrame = this.frame;
-                this.frame = FramesFactory.getEME2000();
+                this.frame = dataContext.getFrames().getEME2000();
             }
         }
 
-        Frame bodyFrame = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        Frame bodyFrame = dataContext.getFrames().getITRF(IERSConventions.IERS_2010, true);
         if(parser.containsKey(ParameterKey.CENTRAL_BODY_FRAME)){
-        	bodyFrame = parser.getEarthFrame(ParameterKey.CENTRAL_BODY_FRAME);
+        	bodyFrame = parser.getEarthFrame(ParameterKey.CENTRAL_BODY_FRAME, dataContext.getFrames());
         }
 
         // Check if the central body is defined and is not earth
-        if (this.centralBody != null && this.centralBody != CelestialBodyFactory.getEarth()) {
+        if (this.centralBody != null && this.centralBody != dataContext.getCelestialBodies().getEarth()) {
             this.degree = 0;
             this.order = 0;
             this.normalized = null;
@@ -338,7 +374,7 @@ public abstract class AbstractTestRun implements TestRun {
             this.order = FastMath.min(degree, parser.getInt(ParameterKey.CENTRAL_BODY_ORDER));
 
             // Potential coefficients providers
-            this.normalized = GravityFieldFactory.getConstantNormalizedProvider(degree, order);
+            this.normalized = dataContext.getGravityFields().getConstantNormalizedProvider(degree, order);
 
             // Central body attraction coefficient (m³/s²)
             this.mu = this.normalized.getMu();
@@ -458,8 +494,14 @@ public abstract class AbstractTestRun implements TestRun {
             this.startStep = parser.getDouble(ParameterKey.INTEGRATOR_START_STEP);
         }
         
+        // Atmosphere model of the drag force
+        this.atmosphereModel = AtmosphereModel.JB2008;
+        if (parser.containsKey(ParameterKey.DRAG_ATMOSPHERE)) {
+            this.atmosphereModel = AtmosphereModel.valueOf(parser.getString(ParameterKey.DRAG_ATMOSPHERE).toUpperCase());
+        }
+        
         // Build JFreeChart compliant data holder
-        this.chartData = new ChartDataHolder(timeAxisType, logger, outputFolder, testName);
+        this.chartData = new ChartDataHolder(timeAxisType, logger, outputFolder, testName, dataContext.getTimeScales());
 
     }
 
@@ -710,7 +752,7 @@ public abstract class AbstractTestRun implements TestRun {
                 
                 break;
             case "CELESTIALBODYPOINTING":
-            	final CelestialBody pointedBody = parser.getCelectialBodies(ParameterKey.ORBIPRO_ATTITUDE_POINTED_BODY).get(0);
+            	final CelestialBody pointedBody = parser.getCelectialBodies(ParameterKey.ORBIPRO_ATTITUDE_POINTED_BODY, dataContext.getCelestialBodies()).get(0);
             	final Vector3D phasingCel = parser.getVector(
             			ParameterKey.ORBIPRO_ATTITUDE_POINTED_PHASINGCEL_X,
             			ParameterKey.ORBIPRO_ATTITUDE_POINTED_PHASINGCEL_Y,
@@ -739,7 +781,7 @@ public abstract class AbstractTestRun implements TestRun {
                     provider = new YawCompensation(this.frame, (GroundPointing)provider);
                     break;
                 case "YAWSTEERING":
-                	final CelestialBody body = parser.getCelectialBodies(ParameterKey.ORBIPRO_ATTITUDE_YAWSTEERING_BODY).get(0);
+                	final CelestialBody body = parser.getCelectialBodies(ParameterKey.ORBIPRO_ATTITUDE_YAWSTEERING_BODY, dataContext.getCelestialBodies()).get(0);
                 	final Vector3D phasingAxis = parser.getVector(
                 			ParameterKey.ORBIPRO_ATTITUDE_YAWSTEERING_PHASINGAXIS_X,
                 			ParameterKey.ORBIPRO_ATTITUDE_YAWSTEERING_PHASINGAXIS_Y,
@@ -816,6 +858,9 @@ public abstract class AbstractTestRun implements TestRun {
         throws IOException, OrekitException {
 
         // Add the perturbation forces
+        this.atmosphere = null;
+        this.dragForce = null;
+        this.srpForce = null;
 
     	// Central Body (normalized coefficients)
         if (this.normalized != null) {
@@ -828,7 +873,7 @@ public abstract class AbstractTestRun implements TestRun {
         // Solar radiation pressure
         
         if (parser.containsKey(ParameterKey.SOLAR_RADIATION_PRESSURE)){
-        	CelestialBody sun = CelestialBodyFactory.getSun();
+        	CelestialBody sun = dataContext.getCelestialBodies().getSun();
         	
         	Vector3D referenceNormal   = parser.getVector(ParameterKey.SPACECRAFT_REFERENCE_NORMAL_X,
         								                  ParameterKey.SPACECRAFT_REFERENCE_NORMAL_Y,ParameterKey.SPACECRAFT_REFERENCE_NORMAL_Z);
@@ -846,6 +891,7 @@ public abstract class AbstractTestRun implements TestRun {
         												     referenceNormal,rotationRate,dragCoeff,absorptionCoeff,reflectionCoeff);
            SolarRadiationPressure SRP = new SolarRadiationPressure(sun, this.ae,this.spacecraft);
            numProp.addForceModel(SRP);
+           this.srpForce = SRP;
         }
         	
         // drag force
@@ -863,24 +909,41 @@ public abstract class AbstractTestRun implements TestRun {
             double dragCoeff           = parser.getDouble(ParameterKey.DRAG_CD);
             double rotationRate        = parser.getDouble(ParameterKey.SPACECRAFT_ROTATION_RATE);
         	
-        	CelestialBody sun            = CelestialBodyFactory.getSun();
-        	SolarIndicesJB2008 inJB2008  = new SolarIndicesJB2008(DataProvidersManager.getInstance());
+        	CelestialBody sun            = dataContext.getCelestialBodies().getSun();
+        	
         	final OneAxisEllipsoid earth = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS, 
         			                                            Constants.WGS84_EARTH_FLATTENING, 
         			                                            centralBodyShape.getBodyFrame());
-            final Atmosphere atm         = new JB2008(inJB2008, sun, earth);
+        	final Atmosphere atm;
+        	switch (this.atmosphereModel) {
+        	    case HARRIS_PRIESTER:
+        	        atm = new HarrisPriester(sun, earth);
+        	        break;
+        	    case DTM2000:
+        	        atm = new DTM2000(createSpaceWeather(), sun, earth, dataContext.getTimeScales().getUTC());
+        	        break;
+        	    case NRLMSISE00:
+        	        atm = new NRLMSISE00(createSpaceWeather(), sun, earth, dataContext.getTimeScales().getUTC());
+        	        break;
+        	    case JB2008:
+        	    default:
+        	        atm = createJB2008(sun, earth);
+        	        break;
+        	}
         	this.spacecraft              = new BoxAndSolarArraySpacecraft(xLength, yLength, zLength, 
         	                                                              sun, solarArrayArea, Vector3D.PLUS_J, 
         																  referenceDate, referenceNormal, 
         																  rotationRate, dragCoeff, 
         																  absorptionCoeff, reflectionCoeff);
         	
-        	numProp.addForceModel(new DragForce(atm, this.spacecraft));
+        	this.atmosphere = atm;
+        	this.dragForce = new DragForce(atm, this.spacecraft);
+        	numProp.addForceModel(this.dragForce);
         }
         
         // Third body
         if (parser.containsKey(ParameterKey.THIRD_BODY)) {
-        	List<CelestialBody> bodies = parser.getCelectialBodies(ParameterKey.THIRD_BODY);
+        	List<CelestialBody> bodies = parser.getCelectialBodies(ParameterKey.THIRD_BODY, dataContext.getCelestialBodies());
         	
         	for (CelestialBody body : bodies) {
         		ForceModel thirdBody = new ThirdBodyAttraction(body);
@@ -898,7 +961,7 @@ public abstract class AbstractTestRun implements TestRun {
 			final double kR 			  = parser.getDouble(ParameterKey.INFRARED_KR);
 			final double surface 		  = parser.getDouble(ParameterKey.INFRARED_SURFACE);
 			final RadiationSensitive sscs = new IsotropicRadiationSingleCoefficient(surface, kR);
-			CelestialBody sun             = CelestialBodyFactory.getSun();
+			CelestialBody sun             = dataContext.getCelestialBodies().getSun();
 
 			
 			double xLength 		       = parser.getDouble(ParameterKey.SPACECRAFT_LENGTH_X);
@@ -914,17 +977,348 @@ public abstract class AbstractTestRun implements TestRun {
 												  absorptionCoeff, reflectionCoeff);
 			
 			
-        	AbstractRadiationForceModel infraredRadiation = new InfraredContribution(RadiationType.EARTH,
-        																			 earth, this.spacecraft,
-        																			 sun);
+        	// grid resolution (deg)
+        	double latitudeDegree  = SolarRadiationConstants.LATITUDE_DEGREE;
+        	double longitudeDegree = SolarRadiationConstants.LONGITUDE_DEGREE;
+        	if (parser.containsKey(ParameterKey.INFRARED_LATITUDE_DEGREE)) {
+        		latitudeDegree = parser.getDouble(ParameterKey.INFRARED_LATITUDE_DEGREE);
+        	}
+        	if (parser.containsKey(ParameterKey.INFRARED_LONGITUDE_DEGREE)) {
+        		longitudeDegree = parser.getDouble(ParameterKey.INFRARED_LONGITUDE_DEGREE);
+        	}
+        	
+        	InfraredContribution infraredRadiation = new InfraredContribution(RadiationType.EARTH,
+        																	  earth, this.spacecraft,
+        																	  sun, latitudeDegree, longitudeDegree);
+        	
+        	// adaptive grid: fine rings around the sub-satellite point, coarse toward the horizon
+        	double nadirDegree = SolarRadiationConstants.ADAPTIVE_NADIR_DEGREE;
+        	double growth      = SolarRadiationConstants.ADAPTIVE_GROWTH;
+        	if (parser.containsKey(ParameterKey.INFRARED_ADAPTIVE_NADIR_DEGREE)) {
+        		nadirDegree = parser.getDouble(ParameterKey.INFRARED_ADAPTIVE_NADIR_DEGREE);
+        	}
+        	if (parser.containsKey(ParameterKey.INFRARED_ADAPTIVE_GROWTH)) {
+        		growth = parser.getDouble(ParameterKey.INFRARED_ADAPTIVE_GROWTH);
+        	}
+        	if (parser.containsKey(ParameterKey.INFRARED_ADAPTIVE) && parser.getBoolean(ParameterKey.INFRARED_ADAPTIVE)) {
+        		infraredRadiation.setAdaptiveGrid(nadirDegree, growth);
+        	}
+        	
+        	// cells visible from the satellite: above the horizon (default) or the whole facing hemisphere
+        	if (parser.containsKey(ParameterKey.INFRARED_HORIZON_CULLING)) {
+        		infraredRadiation.setHorizonCulling(parser.getBoolean(ParameterKey.INFRARED_HORIZON_CULLING));
+        	}
+        	
+        	// date tolerance (s) of the emissivity table
+        	if (parser.containsKey(ParameterKey.INFRARED_EMISSIVITY_TOLERANCE)) {
+        		infraredRadiation.setEmissivityTolerance(parser.getDouble(ParameterKey.INFRARED_EMISSIVITY_TOLERANCE));
+        	}
         	
         	
+        	// reflected sunlight, computed in the same grid pass as the emitted flux
+        	if (parser.containsKey(ParameterKey.INFRARED_ALBEDO)) {
+        		infraredRadiation.setAlbedo(parser.getBoolean(ParameterKey.INFRARED_ALBEDO));
+        	}
+        	
+        	// flux method: grid quadrature (default) or closed form
+        	if (parser.containsKey(ParameterKey.INFRARED_METHOD)) {
+        		infraredRadiation.setFluxMethod(InfraredFluxMethod.valueOf(parser.getString(ParameterKey.INFRARED_METHOD).toUpperCase()));
+        	}
+        	
+        	// SIMD summation of the grid cells, the scalar loop is kept if the vector module is not available
+        	if (parser.containsKey(ParameterKey.INFRARED_VECTOR) && parser.getBoolean(ParameterKey.INFRARED_VECTOR)) {
+        		infraredRadiation.setVectorKernel(true);
+        		if (!infraredRadiation.isVectorKernel()) {
+        			logger.warn(Messages.IR_VECTOR_UNAVAILABLE);
+        		}
+        	}
+        	
+        	// number of grid cells above which the rows are evaluated in parallel
+        	if (parser.containsKey(ParameterKey.INFRARED_PARALLEL_THRESHOLD)) {
+        		infraredRadiation.setParallelThreshold(parser.getInt(ParameterKey.INFRARED_PARALLEL_THRESHOLD));
+        	}
+        	
+        	// tabulated flux, computed with the settings above or loaded from the cache
+        	if (infraredRadiation.getFluxMethod() == InfraredFluxMethod.TABLE) {
+        		double altitudeMin  = SolarRadiationConstants.TABLE_ALTITUDE_MIN;
+        		double altitudeMax  = SolarRadiationConstants.TABLE_ALTITUDE_MAX;
+        		double altitudeStep = SolarRadiationConstants.TABLE_ALTITUDE_STEP;
+        		double angleStep    = SolarRadiationConstants.TABLE_ANGLE_STEP;
+        		// shared by the runs and tests, next to the orekit data folder by default
+        		File cacheFolder    = new File(orekitDataFolder.getAbsoluteFile().getParentFile(), "cache");
+        		if (parser.containsKey(ParameterKey.INFRARED_TABLE_ALTITUDE_MIN)) {
+        			altitudeMin = parser.getDouble(ParameterKey.INFRARED_TABLE_ALTITUDE_MIN) * 1000.;
+        		}
+        		if (parser.containsKey(ParameterKey.INFRARED_TABLE_ALTITUDE_MAX)) {
+        			altitudeMax = parser.getDouble(ParameterKey.INFRARED_TABLE_ALTITUDE_MAX) * 1000.;
+        		}
+        		if (parser.containsKey(ParameterKey.INFRARED_TABLE_ALTITUDE_STEP)) {
+        			altitudeStep = parser.getDouble(ParameterKey.INFRARED_TABLE_ALTITUDE_STEP) * 1000.;
+        		}
+        		if (parser.containsKey(ParameterKey.INFRARED_TABLE_ANGLE_STEP)) {
+        			angleStep = parser.getDouble(ParameterKey.INFRARED_TABLE_ANGLE_STEP);
+        		}
+        		if (parser.containsKey(ParameterKey.INFRARED_TABLE_CACHE)) {
+        			cacheFolder = new File(parser.getString(ParameterKey.INFRARED_TABLE_CACHE));
+        		}
+        		final double tableOn = System.currentTimeMillis();
+        		final boolean loaded = infraredRadiation.buildFluxTable(altitudeMin, altitudeMax, altitudeStep,
+        				angleStep, cacheFolder);
+        		final double tableOff = System.currentTimeMillis();
+        		logger.info((loaded ? Messages.IR_TABLE_LOADED : Messages.IR_TABLE_COMPUTED) + (tableOff - tableOn) / 1000.);
+        		if (infraredRadiation.getTableCacheError() != null) {
+        			logger.warn(Messages.IR_TABLE_CACHE_ERROR + infraredRadiation.getTableCacheError().getLocalizedMessage());
+        		}
+        	}
+        	
+        	// validation: the same model with the other flux method, compared along the trajectory
+        	this.infraredModel = infraredRadiation;
+        	this.infraredValidationModel = null;
+        	if (parser.containsKey(ParameterKey.INFRARED_VALIDATION) && parser.getBoolean(ParameterKey.INFRARED_VALIDATION)) {
+        		this.infraredValidationModel = new InfraredContribution(RadiationType.EARTH,
+        																earth, this.spacecraft,
+        																sun, latitudeDegree, longitudeDegree);
+        		if (infraredRadiation.isAdaptive()) {
+        			this.infraredValidationModel.setAdaptiveGrid(nadirDegree, growth);
+        		}
+        		this.infraredValidationModel.setHorizonCulling(infraredRadiation.isHorizonCulling());
+        		this.infraredValidationModel.setAlbedo(infraredRadiation.isAlbedo());
+        		this.infraredValidationModel.setEmissivityTolerance(infraredRadiation.getEmissivityTolerance());
+        		this.infraredValidationModel.setFluxMethod(infraredRadiation.getFluxMethod() == InfraredFluxMethod.GRID ?
+        				InfraredFluxMethod.ANALYTICAL : InfraredFluxMethod.GRID);
+        	}
+        	
+        	// report the flux error of the selected resolution against a fine grid
+        	if (forceReports &&
+        	    (parser.containsKey(ParameterKey.INFRARED_LATITUDE_DEGREE) ||
+        	     parser.containsKey(ParameterKey.INFRARED_LONGITUDE_DEGREE) ||
+        	     infraredRadiation.isAdaptive())) {
+        		double referenceDegree = SolarRadiationConstants.REFERENCE_GRID_DEGREE;
+        		if (parser.containsKey(ParameterKey.INFRARED_REFERENCE_DEGREE)) {
+        			referenceDegree = parser.getDouble(ParameterKey.INFRARED_REFERENCE_DEGREE);
+        		}
+        		final InfraredContribution reference = new InfraredContribution(RadiationType.EARTH,
+        																		earth, this.spacecraft,
+        																		sun, referenceDegree, referenceDegree);
+        		reference.setHorizonCulling(infraredRadiation.isHorizonCulling());
+        		reference.setAlbedo(infraredRadiation.isAlbedo());
+        		logInfraredFluxError(infraredRadiation, reference, referenceDegree);
+        	}
+        	
+        	// reuse of the flux between the integrator stages, set last so the memo starts empty
+        	if (parser.containsKey(ParameterKey.INFRARED_MEMO_DISTANCE)) {
+        		boolean extrapolation = true;
+        		if (parser.containsKey(ParameterKey.INFRARED_MEMO_EXTRAPOLATION)) {
+        			extrapolation = parser.getBoolean(ParameterKey.INFRARED_MEMO_EXTRAPOLATION);
+        		}
+        		infraredRadiation.setFluxMemo(parser.getDouble(ParameterKey.INFRARED_MEMO_DISTANCE) * 1000., extrapolation);
+        	}
+        	
         	numProp.addForceModel(infraredRadiation);
         }
         
         // TODO add the rest of perturbations
     }
 
+    /** Create the custom JB2008 atmosphere.
+     * @param sun the Sun
+     * @param earth the Earth shape
+     * @return the JB2008 atmosphere
+     * @throws IOException if the solar indices cache cannot be written
+     * @throws OrekitException if the solar indices cannot be read
+     */
+    private JB2008 createJB2008(final CelestialBody sun, final OneAxisEllipsoid earth)
+        throws IOException, OrekitException {
+
+        // binary cache of the solar indices, next to the orekit data folder by default
+        File indicesCache = new File(orekitDataFolder.getAbsoluteFile().getParentFile(), "cache");
+        if (parser.containsKey(ParameterKey.DRAG_INDICES_CACHE)) {
+            indicesCache = new File(parser.getString(ParameterKey.DRAG_INDICES_CACHE));
+        }
+        final SolarIndicesJB2008 inJB2008 = new SolarIndicesJB2008(dataContext.getDataProvidersManager(), indicesCache);
+        if (inJB2008.getCacheError() != null) {
+            logger.warn(Messages.INDICES_CACHE_ERROR + inJB2008.getCacheError().getLocalizedMessage());
+        }
+        if (parser.containsKey(ParameterKey.DRAG_INDICES_INTERPOLATION)) {
+            inJB2008.setInterpolation(parser.getBoolean(ParameterKey.DRAG_INDICES_INTERPOLATION));
+        }
+        final JB2008 atm = new JB2008(inJB2008, sun, earth);
+        if (parser.containsKey(ParameterKey.DRAG_SUN_CACHE_STEP)) {
+            atm.setSunCacheStep(parser.getDouble(ParameterKey.DRAG_SUN_CACHE_STEP));
+        }
+
+        // approximate density from a grid over exospheric temperature and altitude
+        if (parser.containsKey(ParameterKey.DRAG_DENSITY_GRID) && parser.getBoolean(ParameterKey.DRAG_DENSITY_GRID)) {
+            double altitudeMin     = JB2008.GRID_ALTITUDE_MIN;
+            double altitudeMax     = JB2008.GRID_ALTITUDE_MAX;
+            double altitudeStep    = JB2008.GRID_ALTITUDE_STEP;
+            double temperatureStep = JB2008.GRID_TEMPERATURE_STEP;
+            if (parser.containsKey(ParameterKey.DRAG_DENSITY_GRID_ALTITUDE_MIN)) {
+                altitudeMin = parser.getDouble(ParameterKey.DRAG_DENSITY_GRID_ALTITUDE_MIN) * 1000.;
+            }
+            if (parser.containsKey(ParameterKey.DRAG_DENSITY_GRID_ALTITUDE_MAX)) {
+                altitudeMax = parser.getDouble(ParameterKey.DRAG_DENSITY_GRID_ALTITUDE_MAX) * 1000.;
+            }
+            if (parser.containsKey(ParameterKey.DRAG_DENSITY_GRID_ALTITUDE_STEP)) {
+                altitudeStep = parser.getDouble(ParameterKey.DRAG_DENSITY_GRID_ALTITUDE_STEP) * 1000.;
+            }
+            if (parser.containsKey(ParameterKey.DRAG_DENSITY_GRID_TEMPERATURE_STEP)) {
+                temperatureStep = parser.getDouble(ParameterKey.DRAG_DENSITY_GRID_TEMPERATURE_STEP);
+            }
+            atm.setDensityGrid(altitudeMin, altitudeMax, altitudeStep, temperatureStep);
+            this.densityGridModel = atm;
+        }
+        return atm;
+    }
+
+    /** Create the space weather data of the DTM2000 and NRLMSISE-00 atmospheres.
+     * @return the space weather data read from the CelesTrak CSSI file
+     * @throws OrekitException if the space weather file cannot be read
+     */
+    private CssiSpaceWeatherData createSpaceWeather() throws OrekitException {
+        String supportedNames = SPACE_WEATHER_FILE;
+        if (parser.containsKey(ParameterKey.DRAG_SPACE_WEATHER_FILE)) {
+            supportedNames = parser.getString(ParameterKey.DRAG_SPACE_WEATHER_FILE);
+        }
+        return new CssiSpaceWeatherData(supportedNames, dataContext.getDataProvidersManager(),
+                                        dataContext.getTimeScales().getUTC());
+    }
+
+    /** Write the density and the perturbing accelerations at the output steps.
+     * <p>
+     * The atmosphere.output, atmosphere.drag.output, srp.force.output and
+     * infrared.output keys select the columns. Nothing is done if none is set
+     * or if the corresponding forces are disabled.
+     * </p>
+     * @param states the propagated states
+     * @param startDate the start date of the propagation
+     * @param output the output file
+     * @throws IOException if the output file cannot be written
+     * @throws OrekitException if a force model cannot be evaluated
+     */
+    protected void printForceOutput(final List<SpacecraftState> states, final AbsoluteDate startDate,
+            final File output) throws IOException, OrekitException {
+        if (states == null || states.isEmpty()) {
+            return;
+        }
+        final ForceOutputRecorder recorder =
+                new ForceOutputRecorder(isOutputEnabled(ParameterKey.ATMOSPHERE_OUTPUT) ? this.atmosphere : null,
+                                        isOutputEnabled(ParameterKey.ATMOSPHERE_DRAG_OUTPUT) ? this.dragForce : null,
+                                        isOutputEnabled(ParameterKey.SRP_FORCE_OUTPUT) ? this.srpForce : null,
+                                        isOutputEnabled(ParameterKey.INFRARED_OUTPUT) ? this.infraredModel : null);
+        if (!recorder.isEnabled()) {
+            return;
+        }
+        logger.info("Saving force results to file " + output);
+        for (final SpacecraftState state : states) {
+            recorder.record(state, startDate);
+        }
+        recorder.write(output);
+        logger.info("Force results saved as file " + output);
+    }
+
+    /** Check if an output flag is set.
+     * @param key the output key
+     * @return true if the key is set to true
+     */
+    private boolean isOutputEnabled(final ParameterKey key) {
+        return parser.containsKey(key) && parser.getBoolean(key);
+    }
+
+    /** Log the number of infrared flux evaluations skipped by the memo, then disable the memo.
+     * <p>
+     * The memo is only meant for the integrator stages, the diagnostics run after the
+     * propagation evaluate the exact flux at the output states. Nothing is done if the
+     * memo is not enabled.
+     * </p>
+     */
+    protected void logInfraredMemo() {
+        if (this.infraredModel == null || this.infraredModel.getMemoDistance() <= 0) {
+            return;
+        }
+        logger.info(Messages.IR_MEMO + this.infraredModel.getFullEvaluations() + ", " +
+                this.infraredModel.getMemoEvaluations());
+        this.infraredModel.setFluxMemo(0., false);
+    }
+
+    /** Log the difference between the infrared accelerations of the two flux methods.
+     * <p>
+     * Nothing is done if the infrared validation is not enabled.
+     * </p>
+     * @param states the propagated states
+     */
+    protected void logInfraredValidation(final List<SpacecraftState> states) {
+        if (this.infraredValidationModel == null || states == null || states.isEmpty()) {
+            return;
+        }
+        final ParameterDriver[] drivers = this.infraredModel.getParametersDrivers();
+        final double[] parameters = new double[drivers.length];
+        for (int i = 0; i < drivers.length; i++) {
+            parameters[i] = drivers[i].getValue();
+        }
+        double maxDifference = 0.;
+        double sumSquares = 0.;
+        double maxRelative = 0.;
+        for (final SpacecraftState state : states) {
+            final Vector3D acceleration = this.infraredModel.acceleration(state, parameters);
+            final Vector3D validation = this.infraredValidationModel.acceleration(state, parameters);
+            final double difference = acceleration.subtract(validation).getNorm();
+            maxDifference = FastMath.max(maxDifference, difference);
+            maxRelative = FastMath.max(maxRelative, difference / validation.getNorm());
+            sumSquares += difference * difference;
+        }
+        logger.info(MessageFormat.format(Messages.IR_VALIDATION, this.infraredModel.getFluxMethod(),
+                this.infraredValidationModel.getFluxMethod()) +
+                maxDifference + ", " + FastMath.sqrt(sumSquares / states.size()) + ", " + maxRelative);
+    }
+
+    /** Log the error of the JB2008 density grid against the exact model, along the trajectory.
+     * @param states the propagated states
+     * @throws OrekitException if the density cannot be computed
+     */
+    protected void logDensityGridError(final List<SpacecraftState> states) throws OrekitException {
+        if (this.densityGridModel == null || states == null || states.isEmpty()) {
+            return;
+        }
+        double maxError = 0.;
+        double sumSquares = 0.;
+        for (final SpacecraftState state : states) {
+            final Vector3D position = state.getPVCoordinates().getPosition();
+            final double exact = this.densityGridModel.computeDensity(state.getDate(), position, state.getFrame()).getDensity();
+            final double grid = this.densityGridModel.getDensity(state.getDate(), position, state.getFrame());
+            final double error = (grid - exact) / exact;
+            maxError = FastMath.max(maxError, FastMath.abs(error));
+            sumSquares += error * error;
+        }
+        logger.info(Messages.DENSITY_GRID_ERROR + maxError + ", " + FastMath.sqrt(sumSquares / states.size()));
+    }
+
+    /** Log the infrared flux error of a model against a reference model.
+     * <p>
+     * The flux is sampled along one Keplerian period of the initial orbit.
+     * </p>
+     * @param infrared the infrared model used in the propagation
+     * @param reference the reference infrared model
+     * @param referenceDegree the grid spacing of the reference model (deg)
+     */
+    private void logInfraredFluxError(final InfraredContribution infrared, final InfraredContribution reference,
+            final double referenceDegree) {
+        final int samples = 36;
+        final double period = this.orbit.getKeplerianPeriod();
+        double maxError = 0.;
+        double sumError = 0.;
+        for (int i = 0; i < samples; i++) {
+            final Orbit sample = this.orbit.shiftedBy(i * period / samples);
+            final Vector3D position = sample.getPVCoordinates().getPosition();
+            final Vector3D referenceFlux = reference.computeFlux(sample.getDate(), sample.getFrame(), position);
+            final Vector3D flux = infrared.computeFlux(sample.getDate(), sample.getFrame(), position);
+            final double error = flux.subtract(referenceFlux).getNorm() / referenceFlux.getNorm();
+            maxError = FastMath.max(maxError, error);
+            sumError += error;
+        }
+        logger.info(MessageFormat.format(Messages.IR_FLUX_ERROR, referenceDegree) + maxError + ", " + sumError / samples);
+    }
+
     /** Parse a file containing a variable thrust maneuver and convert it to several constant maneuvers. 
      * @param maneuverFile the file containing the maneuver data
      * @param numProp the propagator
@@ -1514,6 +1908,34 @@ public abstract class AbstractTestRun implements TestRun {
     protected TimeScale getTs() {
         return ts;
     }
+
+    /**
+     * @return the Orekit data context of the test
+     */
+    protected LazyLoadedDataContext getDataContext() {
+        return dataContext;
+    }
+
+    /**
+     * @return the atmosphere model of the drag force
+     */
+    protected AtmosphereModel getAtmosphereModel() {
+        return atmosphereModel;
+    }
+
+    /**
+     * @param atmosphereModel the atmosphere model of the drag force used by the next propagations
+     */
+    protected void setAtmosphereModel(final AtmosphereModel atmosphereModel) {
+        this.atmosphereModel = atmosphereModel;
+    }
+
+    /**
+     * @param forceReports true if the force models set by the next propagations log their accuracy reports
+     */
+    protected void setForceReports(final boolean forceReports) {
+        this.forceReports = forceReports;
+    }
     
     /** COnvert between two type of lists
      * @param from the source list
@@ -1525,6 +1947,34 @@ public abstract class AbstractTestRun implements TestRun {
     }    
     
 
+    /** {@inheritDoc} */
+    @Override
+    public List<File> getInputFiles() throws IOException {
+        final List<File> files = new ArrayList<File>();
+        files.add(testFile);
+        files.add(getOrekitDataResource());
+        if (parser.containsKey(ParameterKey.ORBIPRO_REFERENCE_FILE)) {
+            files.add(new File(referenceFolder, parser.getString(ParameterKey.ORBIPRO_REFERENCE_FILE)));
+        }
+        if (parser.containsKey(ParameterKey.ORBIPRO_ATTITUDE_TABULATED_FILE)) {
+            files.add(new File(testFile.getParentFile(), parser.getString(ParameterKey.ORBIPRO_ATTITUDE_TABULATED_FILE)));
+        }
+        return files;
+    }
+
+    /**
+     * Get the orekit data folder of the test.
+     *
+     * @return the orekit data folder
+     */
+    private File getOrekitDataResource() {
+    	String dataFolder = "./data/orekit-data";
+    	if (parser.containsKey(ParameterKey.OREKIT_DATA_FOLDER)) {
+    		dataFolder = parser.getString(ParameterKey.OREKIT_DATA_FOLDER);
+    	}
+        return getResourceFile(dataFolder);
+    }
+
     /**
      * Get a resource file.
      *
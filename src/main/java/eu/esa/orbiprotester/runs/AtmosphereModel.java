@@ -0,0 +1,15 @@
+package eu.esa.orbiprotester.runs;
+
+/**
+ * Atmosphere model used by the drag force, selected with the drag.atmosphere key
+ * JB2008          - custom Jacchia-Bowman 2008, solar indices from SOLFSMY.TXT and DTCFILE.TXT (default)
+ * HARRIS_PRIESTER - Harris-Priester, no space weather data needed
+ * DTM2000         - DTM2000, space weather from the CelesTrak CSSI file
+ * NRLMSISE00      - NRLMSISE-00, space weather from the CelesTrak CSSI file
+ */
+public enum AtmosphereModel {
+    JB2008,
+    HARRIS_PRIESTER,
+    DTM2000,
+    NRLMSISE00;
+}
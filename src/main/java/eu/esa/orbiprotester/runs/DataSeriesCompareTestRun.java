@@ -3,6 +3,7 @@ package eu.esa.orbiprotester.runs;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 import org.apache.log4j.Logger;
 import org.orekit.errors.OrekitException;
@@ -57,11 +58,25 @@ public class DataSeriesCompareTestRun extends AbstractTestRun {
         }
     }
 
+    /**
+     * @see eu.esa.orbiprotester.runs.AbstractTestRun#getInputFiles()
+     */
+    @Override
+    public List<File> getInputFiles() throws IOException {
+        final List<File> files = super.getInputFiles();
+        if (getParser().containsKey(ParameterKey.DATA_SERIES_FILES)) {
+            for (final String dataFile : getParser().getString(ParameterKey.DATA_SERIES_FILES).split("[|]")) {
+                files.add(new File(getReferenceFolder(), dataFile));
+            }
+        }
+        return files;
+    }
+
     /* (non-Javadoc)
      * @see eu.esa.orbiprotester.runs.TestRun#runTest()
      */
     @Override
-    public void runTest() throws IOException, OrekitException {
+    public boolean runTest() throws IOException, OrekitException {
         // get the main data series (defined as the reference)
         ChartDataHolder.FileDataHolder referenceData = loadDataSeriesFile(getReferenceFileName(), getReferenceLabel(), false);
         
@@ -76,6 +91,7 @@ public class DataSeriesCompareTestRun extends AbstractTestRun {
             // create the special charts
             createSpecialCharts(referenceData, dataSeries, getReferenceLabel(), dataLabel);
         }
+        return true;
     }
 
     /** No initial orbit exists for this test. 
@@ -168,12 +168,44 @@ public enum ParameterKey {
     DRAG_CD,
     DRAG_SF,
     DRAG_COSINE_EXPONENT,
+    DRAG_INDICES_INTERPOLATION,
+    DRAG_INDICES_CACHE,
+    DRAG_SUN_CACHE_STEP,
+    DRAG_DENSITY_GRID,
+    DRAG_DENSITY_GRID_ALTITUDE_MIN,
+    DRAG_DENSITY_GRID_ALTITUDE_MAX,
+    DRAG_DENSITY_GRID_ALTITUDE_STEP,
+    DRAG_DENSITY_GRID_TEMPERATURE_STEP,
+    DRAG_ATMOSPHERE,
+    DRAG_ATMOSPHERE_COMPARE,
+    DRAG_SPACE_WEATHER_FILE,
     SOLAR_RADIATION_PRESSURE,
     SOLAR_RADIATION_PRESSURE_CR,
     SOLAR_RADIATION_PRESSURE_SF,
 	INFRARED_RADIATION,
 	INFRARED_SURFACE,
-	INFRARED_KR;
+	INFRARED_KR,
+	INFRARED_HORIZON_CULLING,
+	INFRARED_EMISSIVITY_TOLERANCE,
+	INFRARED_LATITUDE_DEGREE,
+	INFRARED_LONGITUDE_DEGREE,
+	INFRARED_ADAPTIVE,
+	INFRARED_ADAPTIVE_NADIR_DEGREE,
+	INFRARED_ADAPTIVE_GROWTH,
+	INFRARED_REFERENCE_DEGREE,
+	INFRARED_METHOD,
+	INFRARED_VALIDATION,
+	INFRARED_VECTOR,
+	INFRARED_PARALLEL_THRESHOLD,
+	INFRARED_ALBEDO,
+	INFRARED_TABLE_ALTITUDE_MIN,
+	INFRARED_TABLE_ALTITUDE_MAX,
+	INFRARED_TABLE_ALTITUDE_STEP,
+	INFRARED_TABLE_ANGLE_STEP,
+	INFRARED_TABLE_CACHE,
+	INFRARED_MEMO_DISTANCE,
+	INFRARED_MEMO_EXTRAPOLATION,
+	INFRARED_OUTPUT;
 
     @Override
     public String toString() {
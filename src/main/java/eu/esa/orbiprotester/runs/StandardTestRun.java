@@ -5,6 +5,7 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.text.MessageFormat;
 import java.util.Formatter;
 import java.util.List;
 import java.util.Locale;
@@ -48,6 +49,12 @@ public class StandardTestRun extends AbstractTestRun {
     /** The result of Orbipro propagation as a list of time stamped PV coordinates and rotations. */
     private ChartDataHolder.FileDataHolder orbiproData;
 
+    /** True if the last propagation reached the end date without error. */
+    private boolean propagationCompleted;
+
+    /** The time spent in the last propagation, without its set up (s). */
+    private double propagationTime;
+
     /** Standard constructor.
      * @param parser the parser for the input test file
      * @param outputFolder the root folder for the output
@@ -69,13 +76,22 @@ public class StandardTestRun extends AbstractTestRun {
      * @throws OrekitException if the test fails
      * @see eu.esa.dsst.runs.TestRun#runTest()
      */
-    public void runTest() throws IOException, OrekitException {
+    public boolean runTest() throws IOException, OrekitException {
 
         // build the output file name
         final File output = new File(getOutputFolder(), getTestName() + "_Orekit.out");
 
         // Run the Orekit propagation
         orekitStates = runNumericalPropagation();
+        final boolean completed = propagationCompleted;
+        logInfraredValidation(orekitStates);
+        logDensityGridError(orekitStates);
+        printForceOutput(orekitStates, getStart(), new File(getOutputFolder(), getTestName() + "_Forces.out"));
+        if (getParser().containsKey(ParameterKey.DRAG) && getParser().getBoolean(ParameterKey.DRAG) &&
+            getParser().containsKey(ParameterKey.DRAG_ATMOSPHERE_COMPARE) &&
+            getParser().getBoolean(ParameterKey.DRAG_ATMOSPHERE_COMPARE)) {
+            compareAtmosphereModels(orekitStates);
+        }
         processData(orekitStates, getStart(), output, getOrekitLabel(), getChartData());
 
         // check the reference file
@@ -83,7 +99,8 @@ public class StandardTestRun extends AbstractTestRun {
 
         // create the special charts
         createSpecialCharts(orekitStates, orbiproData, getOrekitLabel(), getReferenceLabel());
-                        
+
+        return completed;
     }
 
     public double getLightingRatio(final Vector3D position, final Frame frame, final AbsoluteDate date,
@@ -157,6 +174,75 @@ public class StandardTestRun extends AbstractTestRun {
     
     
 
+    /** Propagate the test again with each of the other atmosphere models.
+     * <p>
+     * The time spent in the propagation of each model, without the set up of the
+     * propagator and of the force models, is logged next to the maximum position
+     * difference against the states obtained with the selected model. A model whose
+     * propagation fails or ends before the end date is reported as failed.
+     * </p>
+     * @param states the states obtained with the selected atmosphere model
+     */
+    private void compareAtmosphereModels(final List<SpacecraftState> states) {
+        final AtmosphereModel selected = getAtmosphereModel();
+        if (!logCompareFailure(selected, selected, states, states)) {
+            return;
+        }
+        getLogger().info(MessageFormat.format(Messages.ATMOSPHERE_COMPARE, selected, selected) + propagationTime + ", " + 0.);
+
+        // the accuracy reports of the force models do not depend on the atmosphere
+        setForceReports(false);
+        try {
+            for (final AtmosphereModel model : AtmosphereModel.values()) {
+                if (model == selected) {
+                    continue;
+                }
+                getLogger().info(Messages.ATMOSPHERE_COMPARE_RUN + model);
+                setAtmosphereModel(model);
+                final List<SpacecraftState> modelStates = runNumericalPropagation();
+                if (!logCompareFailure(model, selected, modelStates, states)) {
+                    continue;
+                }
+                double maxDifference = 0.;
+                for (int i = 0; i < states.size(); i++) {
+                    maxDifference = FastMath.max(maxDifference,
+                            Vector3D.distance(states.get(i).getPVCoordinates().getPosition(),
+                                              modelStates.get(i).getPVCoordinates().getPosition()));
+                }
+                getLogger().info(MessageFormat.format(Messages.ATMOSPHERE_COMPARE, model, selected) +
+                        propagationTime + ", " + maxDifference);
+            }
+        } finally {
+            setForceReports(true);
+            setAtmosphereModel(selected);
+        }
+    }
+
+    /** Log the failure of the last propagation of an atmosphere model, if any.
+     * <p>
+     * The propagation fails if it cannot be set up, if it ends in error or if it does
+     * not give as many states as the propagation with the selected model.
+     * </p>
+     * @param model the atmosphere model of the last propagation
+     * @param selected the selected atmosphere model
+     * @param states the states of the last propagation
+     * @param reference the states obtained with the selected atmosphere model
+     * @return true if the propagation reached the end date
+     */
+    private boolean logCompareFailure(final AtmosphereModel model, final AtmosphereModel selected,
+                                      final List<SpacecraftState> states, final List<SpacecraftState> reference) {
+        if (states == null || states.isEmpty()) {
+            getLogger().error(MessageFormat.format(Messages.ATMOSPHERE_COMPARE_FAILED, model, selected));
+            return false;
+        }
+        if (!propagationCompleted || states.size() != reference.size()) {
+            getLogger().error(MessageFormat.format(Messages.ATMOSPHERE_COMPARE_ENDED, model, selected) +
+                    states.get(states.size() - 1).getDate().durationFrom(getStart()));
+            return false;
+        }
+        return true;
+    }
+
 	/**
      * Perform a numerical propagation.
      *
@@ -165,6 +251,8 @@ public class StandardTestRun extends AbstractTestRun {
     protected List<SpacecraftState> runNumericalPropagation() {
 
         List<SpacecraftState> states = null;
+        propagationCompleted = false;
+        propagationTime = 0.;
         try {
             // Numerical propagator definition
             final NumericalPropagator numProp = createNumProp(getOrbit(), getMass(), getAttitudeProvider());
@@ -191,7 +279,10 @@ public class StandardTestRun extends AbstractTestRun {
             if (endInError) {
                 getLogger().info(Messages.OREKIT_PROP_END_PREMATURELY);
             }
-            getLogger().info(Messages.EXEC_OREKIT_TIME + (numOff - numOn) / 1000.);
+            propagationCompleted = !endInError;
+            propagationTime = (numOff - numOn) / 1000.;
+            getLogger().info(Messages.EXEC_OREKIT_TIME + propagationTime);
+            logInfraredMemo();
 
             states = numHandler.getStates();
         } catch (IOException ioex) {
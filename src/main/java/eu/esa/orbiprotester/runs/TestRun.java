@@ -16,7 +16,9 @@
  */
 package eu.esa.orbiprotester.runs;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 import org.orekit.errors.OrekitException;
 
@@ -37,10 +39,22 @@ public interface TestRun {
 
     /** Run the test.
      *
+     * @return true if the test completed, false if its propagation ended prematurely
      * @throws IOException if the input file cannot be read correctly
      * @throws OrekitException in case of an error.
      */
-    void runTest() throws IOException, OrekitException;
+    boolean runTest() throws IOException, OrekitException;
+
+    /** Get the files read by the test.
+     * <p>
+     * The result of the test only depends on the content of these files, which can be
+     * folders. It is available before {@link #readInputData()}.
+     * </p>
+     *
+     * @return the files read by the test
+     * @throws IOException if a file cannot be located
+     */
+    List<File> getInputFiles() throws IOException;
 
     /**
      * Print the charts.
@@ -60,7 +60,7 @@ import org.orekit.orbits.PositionAngle;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeScalarFunction;
-import org.orekit.time.TimeScalesFactory;
+import org.orekit.time.TimeScales;
 import org.orekit.time.TimeVectorFunction;
 import org.orekit.time.UT1Scale;
 import org.orekit.time.UTCScale;
@@ -82,7 +82,7 @@ public class ChartDataHolder {
     private static final int CHARTHEIGHT = 300;
 
     /** Logger. */
-    private static Logger logger;
+    private final Logger logger;
 
     /** The information used to create charts. */
     private static ChartInfo[] chartInfos;
@@ -99,6 +99,9 @@ public class ChartDataHolder {
     /** The simulation name. */
     private final String simulationName;
 
+    /** The time scales of the data context of the simulation. */
+    private final TimeScales timeScales;
+
     static {
         ChartDataHolder.chartInfos = new ChartInfo[] {
             // Keplerian elements
@@ -169,12 +172,15 @@ public class ChartDataHolder {
      * @param logger the logger
      * @param outputFolder the folder where the images should be saved
      * @param simulationName the name of the simulation
+     * @param timeScales the time scales of the data context of the simulation
      */
-    public ChartDataHolder(final String timeAxisType, final Logger logger, final File outputFolder, final String simulationName) {
+    public ChartDataHolder(final String timeAxisType, final Logger logger, final File outputFolder, final String simulationName,
+                           final TimeScales timeScales) {
         this.timeAxisType = timeAxisType;
-        ChartDataHolder.logger = logger;
+        this.logger = logger;
         this.outputFolder = outputFolder;
         this.simulationName = simulationName;
+        this.timeScales = timeScales;
         this.chartSeries = new XYSeriesCollection[ElementType.TOTAL];
 
         for (int i = 0; i < ElementType.TOTAL; i++) {
@@ -204,10 +210,10 @@ public class ChartDataHolder {
         }
 
         final IERSConventions conventions = IERSConventions.IERS_2010;
-        final UT1Scale ut1 = TimeScalesFactory.getUT1(conventions, true);
+        final UT1Scale ut1 = timeScales.getUT1(conventions, true);
         //timescalar function from timefunction
-        final TimeScalarFunction gmstfunction = conventions.getGMSTFunction(ut1);
-        final UTCScale utc = TimeScalesFactory.getUTC();
+        final TimeScalarFunction gmstfunction = conventions.getGMSTFunction(ut1, timeScales);
+        final UTCScale utc = timeScales.getUTC();
         //final Frame earthFrame = earth.getBodyFrame();
 
         for (SpacecraftState s : states) {
@@ -581,9 +587,9 @@ public class ChartDataHolder {
         }
         
         final IERSConventions conventions = IERSConventions.IERS_2010;
-        final UT1Scale ut1 = TimeScalesFactory.getUT1(conventions, true);
-        final TimeScalarFunction gmstfunction = conventions.getGMSTFunction(ut1);
-        final UTCScale utc = TimeScalesFactory.getUTC();
+        final UT1Scale ut1 = timeScales.getUT1(conventions, true);
+        final TimeScalarFunction gmstfunction = conventions.getGMSTFunction(ut1, timeScales);
+        final UTCScale utc = timeScales.getUTC();
         
         
         //Open the file for line-by-line read mode
@@ -0,0 +1,190 @@
+package eu.esa.orbiprotester.utils;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Formatter;
+import java.util.Locale;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.errors.OrekitException;
+import org.orekit.forces.ForceModel;
+import org.orekit.models.earth.atmosphere.Atmosphere;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.ParameterDriver;
+
+/** Recorder of the atmosphere density and of the perturbing accelerations at the output steps.
+ * <p>
+ * Each model is evaluated once per recorded state, outside of the integrator, and the
+ * values are stored in primitive buffers until they are written. A null model disables
+ * its columns.
+ * </p>
+ */
+public class ForceOutputRecorder {
+
+    /** Initial number of states of the buffers. */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** Atmosphere giving the density, null if not recorded. */
+    private final Atmosphere atmosphere;
+
+    /** Drag force, null if not recorded. */
+    private final ForceModel drag;
+
+    /** Solar radiation pressure force, null if not recorded. */
+    private final ForceModel srp;
+
+    /** Infrared force, null if not recorded. */
+    private final ForceModel infrared;
+
+    /** Number of recorded values per state. */
+    private final int columns;
+
+    /** Time from start of the recorded states (s). */
+    private double[] times;
+
+    /** Recorded values, one row of columns per state. */
+    private double[] values;
+
+    /** Number of recorded states. */
+    private int size;
+
+    /** Standard constructor.
+     * @param atmosphere atmosphere giving the density, null if not recorded
+     * @param drag drag force, null if not recorded
+     * @param srp solar radiation pressure force, null if not recorded
+     * @param infrared infrared force, null if not recorded
+     */
+    public ForceOutputRecorder(final Atmosphere atmosphere, final ForceModel drag,
+                               final ForceModel srp, final ForceModel infrared) {
+        this.atmosphere = atmosphere;
+        this.drag       = drag;
+        this.srp        = srp;
+        this.infrared   = infrared;
+        this.columns    = (atmosphere == null ? 0 : 1) + (drag == null ? 0 : 3) +
+                          (srp == null ? 0 : 3) + (infrared == null ? 0 : 3);
+        this.times      = new double[INITIAL_CAPACITY];
+        this.values     = new double[INITIAL_CAPACITY * columns];
+        this.size       = 0;
+    }
+
+    /** Record the density and the accelerations at one state.
+     * @param state the state
+     * @param startDate the start date of the propagation
+     * @throws OrekitException if a model cannot be evaluated
+     */
+    public void record(final SpacecraftState state, final AbsoluteDate startDate) throws OrekitException {
+        if (size == times.length) {
+            times  = Arrays.copyOf(times, 2 * size);
+            values = Arrays.copyOf(values, 2 * size * columns);
+        }
+        times[size] = state.getDate().durationFrom(startDate);
+        int index = size * columns;
+        if (atmosphere != null) {
+            values[index++] = atmosphere.getDensity(state.getDate(), state.getPVCoordinates().getPosition(),
+                                                    state.getFrame());
+        }
+        index = recordAcceleration(drag, state, index);
+        index = recordAcceleration(srp, state, index);
+        recordAcceleration(infrared, state, index);
+        size++;
+    }
+
+    /** Record the acceleration of one force model.
+     * @param force the force model, null if not recorded
+     * @param state the state
+     * @param index index of the first value in the buffer
+     * @return index of the next value in the buffer
+     * @throws OrekitException if the acceleration cannot be computed
+     */
+    private int recordAcceleration(final ForceModel force, final SpacecraftState state, final int index)
+        throws OrekitException {
+        if (force == null) {
+            return index;
+        }
+        final ParameterDriver[] drivers = force.getParametersDrivers();
+        final double[] parameters = new double[drivers.length];
+        for (int i = 0; i < drivers.length; i++) {
+            parameters[i] = drivers[i].getValue();
+        }
+        final Vector3D acceleration = force.acceleration(state, parameters);
+        values[index]     = acceleration.getX();
+        values[index + 1] = acceleration.getY();
+        values[index + 2] = acceleration.getZ();
+        return index + 3;
+    }
+
+    /** Check if at least one model is recorded.
+     * @return true if at least one model is recorded
+     */
+    public boolean isEnabled() {
+        return columns > 0;
+    }
+
+    /** Get the number of recorded states.
+     * @return the number of recorded states
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /** Write the recorded values.
+     * @param output the output file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(final File output) throws IOException {
+        final StringBuilder header = new StringBuilder(String.format(Locale.ENGLISH, "##%23s", "time_from_start(s)"));
+        if (atmosphere != null) {
+            appendColumn(header, "density(kg/m^3)");
+        }
+        appendHeader(header, drag, "Drag");
+        appendHeader(header, srp, "SRP");
+        appendHeader(header, infrared, "IR");
+
+        final BufferedWriter buffer = new BufferedWriter(new FileWriter(output));
+        try {
+            buffer.write(header.toString());
+            buffer.newLine();
+            final StringBuilder line = new StringBuilder();
+            final Formatter f = new Formatter(line, Locale.ENGLISH);
+            for (int i = 0; i < size; i++) {
+                line.setLength(0);
+                f.format(" %24.16e", times[i]);
+                for (int j = i * columns; j < (i + 1) * columns; j++) {
+                    f.format(" %24.16e", values[j]);
+                }
+                buffer.write(line.toString());
+                buffer.newLine();
+            }
+            f.close();
+        } finally {
+            buffer.close();
+        }
+    }
+
+    /** Append the header of the acceleration columns of one force model.
+     * @param header the header
+     * @param force the force model, null if not recorded
+     * @param name the name of the force in the header
+     */
+    private static void appendHeader(final StringBuilder header, final ForceModel force, final String name) {
+        if (force == null) {
+            return;
+        }
+        for (final String axis : new String[] {"X", "Y", "Z"}) {
+            appendColumn(header, axis + name + "Acc(m/s^2)");
+        }
+    }
+
+    /** Append one column name to the header, right aligned with the values.
+     * @param header the header
+     * @param column the column name
+     */
+    private static void appendColumn(final StringBuilder header, final String column) {
+        header.append(String.format(Locale.ENGLISH, " %24s", column));
+    }
+
+}
@@ -0,0 +1,217 @@
+package eu.esa.orbiprotester.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/** Reuse of the results of the tests whose input files did not change since a previous run.
+ * <p>
+ * The content of the files read by a test is hashed with SHA-256. When a test succeeds,
+ * its hash is written as TEST_NAME.hash in the output folder of the run. A later run of
+ * the same test with the same hash links (or copies, if links are not supported) the
+ * artefacts of the previous run instead of computing them again.
+ * </p>
+ */
+public final class IncrementalRuns {
+
+    /** Extension of the files holding the hash of the successful tests. */
+    private static final String HASH_EXTENSION = ".hash";
+
+    /** Size of the buffer used to read the files. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Hashes of the folders, with the listing (names, sizes, dates) they were computed for. */
+    private static final Map<Path, String[]> FOLDER_HASHES = new ConcurrentHashMap<Path, String[]>();
+
+    /**
+     * Private constructor. This class cannot be instantiated.
+     */
+    private IncrementalRuns() {
+        //Nothing to do
+    }
+
+    /** Hash the content of the files read by a test.
+     * <p>
+     * The folders are hashed with all the files they contain. As the orekit data folder
+     * is shared by many tests, the hash of a folder is kept and only computed again
+     * when the names, sizes or dates of its files change.
+     * </p>
+     * @param files the files read by the test
+     * @return the hexadecimal SHA-256 hash of the files
+     * @throws IOException if a file cannot be read
+     */
+    public static String hash(final List<File> files) throws IOException {
+        final MessageDigest digest = newDigest();
+        for (final File file : files) {
+            final Path path = file.toPath().toAbsolutePath().normalize();
+            digest.update(path.toString().getBytes(StandardCharsets.UTF_8));
+            if (Files.isDirectory(path)) {
+                digest.update(hashFolder(path).getBytes(StandardCharsets.UTF_8));
+            } else if (Files.isRegularFile(path)) {
+                updateDigest(digest, path);
+            }
+            // a missing file only contributes its name
+        }
+        return toHex(digest.digest());
+    }
+
+    /** Find the latest previous run where a test succeeded with the same hash.
+     * @param runFolder the output folder of the current run
+     * @param testName the name of the test
+     * @param hash the hash of the files read by the test
+     * @return the output folder of the previous run, null if there is none
+     * @throws IOException if a hash file cannot be read
+     */
+    public static File findPreviousRun(final File runFolder, final String testName, final String hash)
+        throws IOException {
+        final File[] runs = runFolder.getAbsoluteFile().getParentFile().listFiles(File::isDirectory);
+        if (runs == null) {
+            return null;
+        }
+        // the run folders are named after their date, the latest one comes first
+        Arrays.sort(runs, Collections.reverseOrder());
+        for (final File run : runs) {
+            final File hashFile = new File(run, testName + HASH_EXTENSION);
+            if (!run.getName().equals(runFolder.getName()) && hashFile.isFile() &&
+                new File(run, testName).isDirectory() &&
+                hash.equals(new String(Files.readAllBytes(hashFile.toPath()), StandardCharsets.UTF_8).trim())) {
+                return run;
+            }
+        }
+        return null;
+    }
+
+    /** Reuse the artefacts of a test from a previous run.
+     * <p>
+     * The files of the previous output folder of the test are hard-linked in the current
+     * one, or copied if the file system does not support links, and the hash is recorded.
+     * </p>
+     * @param previousRunFolder the output folder of the previous run
+     * @param runFolder the output folder of the current run
+     * @param testName the name of the test
+     * @param hash the hash of the files read by the test
+     * @throws IOException if an artefact cannot be linked nor copied
+     */
+    public static void reuse(final File previousRunFolder, final File runFolder, final String testName,
+                             final String hash)
+        throws IOException {
+        final Path source = new File(previousRunFolder, testName).toPath();
+        final Path target = new File(runFolder, testName).toPath();
+        final List<Path> paths;
+        try (Stream<Path> walk = Files.walk(source)) {
+            paths = walk.collect(Collectors.toList());
+        }
+        for (final Path path : paths) {
+            final Path destination = target.resolve(source.relativize(path).toString());
+            if (Files.isDirectory(path)) {
+                Files.createDirectories(destination);
+            } else {
+                try {
+                    Files.createLink(destination, path);
+                } catch (IOException | UnsupportedOperationException e) {
+                    Files.copy(path, destination);
+                }
+            }
+        }
+        record(runFolder, testName, hash);
+    }
+
+    /** Record the hash of a successful test in the output folder of the run.
+     * @param runFolder the output folder of the current run
+     * @param testName the name of the test
+     * @param hash the hash of the files read by the test
+     * @throws IOException if the hash file cannot be written
+     */
+    public static void record(final File runFolder, final String testName, final String hash)
+        throws IOException {
+        Files.write(new File(runFolder, testName + HASH_EXTENSION).toPath(), hash.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Hash a folder with all the files it contains.
+     * @param folder the folder
+     * @return the hexadecimal hash of the folder
+     * @throws IOException if a file cannot be read
+     */
+    private static String hashFolder(final Path folder) throws IOException {
+
+        // list the files, sorted so that the hash does not depend on the listing order
+        final List<Path> files;
+        try (Stream<Path> walk = Files.walk(folder)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        final StringBuilder listing = new StringBuilder();
+        for (final Path file : files) {
+            final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            listing.append(folder.relativize(file)).append('|').append(attributes.size()).append('|').
+                    append(attributes.lastModifiedTime().toMillis()).append('\n');
+        }
+
+        final String[] cached = FOLDER_HASHES.get(folder);
+        if (cached != null && cached[0].equals(listing.toString())) {
+            return cached[1];
+        }
+
+        final MessageDigest digest = newDigest();
+        for (final Path file : files) {
+            digest.update(folder.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+            updateDigest(digest, file);
+        }
+        final String hash = toHex(digest.digest());
+        FOLDER_HASHES.put(folder, new String[] {listing.toString(), hash});
+        return hash;
+    }
+
+    /** Add the content of a file to a digest.
+     * @param digest the digest
+     * @param file the file
+     * @throws IOException if the file cannot be read
+     */
+    private static void updateDigest(final MessageDigest digest, final Path file) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read = in.read(buffer);
+            while (read >= 0) {
+                digest.update(buffer, 0, read);
+                read = in.read(buffer);
+            }
+        }
+    }
+
+    /** Create a SHA-256 digest.
+     * @return the digest
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException nsae) {
+            // SHA-256 is available on all Java platforms
+            throw new IllegalStateException(nsae);
+        }
+    }
+
+    /** Convert bytes to hexadecimal.
+     * @param bytes the bytes
+     * @return the hexadecimal string
+     */
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(2 * bytes.length);
+        for (final byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+}
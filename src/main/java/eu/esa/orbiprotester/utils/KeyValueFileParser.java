@@ -16,11 +16,12 @@ import org.hipparchus.exception.Localizable;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.hipparchus.util.FastMath;
 import org.orekit.bodies.CelestialBody;
-import org.orekit.bodies.CelestialBodyFactory;
+import org.orekit.bodies.CelestialBodies;
+import org.orekit.data.DataContext;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.frames.Frame;
-import org.orekit.frames.FramesFactory;
+import org.orekit.frames.Frames;
 import org.orekit.frames.LOFType;
 import org.orekit.frames.Predefined;
 import org.orekit.time.AbsoluteDate;
@@ -197,6 +198,17 @@ public class KeyValueFileParser<Key extends Enum<Key>> {
      * @exception OrekitException if frame cannot be built
      */
     public Frame getInertialFrame(final Key key) throws NoSuchElementException, OrekitException {
+        return getInertialFrame(key, DataContext.getDefault().getFrames());
+    }
+
+    /** Get an inertial frame from a parameters map.
+     * @param key parameter key
+     * @param frames the frames of the data context
+     * @return inertial frame corresponding to the key
+     * @exception NoSuchElementException if key is not in the map
+     * @exception OrekitException if frame cannot be built
+     */
+    public Frame getInertialFrame(final Key key, final Frames frames) throws NoSuchElementException, OrekitException {
 
         // get the name of the desired frame
         final String frameName = getString(key);
@@ -204,8 +216,8 @@ public class KeyValueFileParser<Key extends Enum<Key>> {
         // check the name against predefined frames
         for (Predefined predefined : Predefined.values()) {
             if (frameName.equals(predefined.getName())) {
-                if (FramesFactory.getFrame(predefined).isPseudoInertial()) {
-                    return FramesFactory.getFrame(predefined);
+                if (frames.getFrame(predefined).isPseudoInertial()) {
+                    return frames.getFrame(predefined);
                 } else {
                     throw new OrekitException(OrekitMessages.NON_PSEUDO_INERTIAL_FRAME,
                                               frameName);
@@ -229,6 +241,21 @@ public class KeyValueFileParser<Key extends Enum<Key>> {
      */
     public Frame getEarthFrame(final Key key)
         throws NoSuchElementException, OrekitException {
+        return getEarthFrame(key, DataContext.getDefault().getFrames());
+    }
+
+    /** Get an Earth frame from a parameters map.
+     * <p>
+     * We consider Earth frames are the frames with name starting with "ITRF".
+     * </p>
+     * @param key parameter key
+     * @param frames the frames of the data context
+     * @return Earth frame corresponding to the key
+     * @exception NoSuchElementException if key is not in the map
+     * @exception OrekitException if frame cannot be built
+     */
+    public Frame getEarthFrame(final Key key, final Frames frames)
+        throws NoSuchElementException, OrekitException {
 
         // get the name of the desired frame
         final String frameName = getString(key);
@@ -236,7 +263,7 @@ public class KeyValueFileParser<Key extends Enum<Key>> {
         // check the name against predefined frames
         for (Predefined predefined : Predefined.values()) {
             if (frameName.equals(predefined.getName())) {
-                return FramesFactory.getFrame(predefined);
+                return frames.getFrame(predefined);
             }
         }
 
@@ -273,11 +300,22 @@ public class KeyValueFileParser<Key extends Enum<Key>> {
      */
     public List<CelestialBody> getCelectialBodies(final Key key) 
     		throws OrekitException {
+    	return getCelectialBodies(key, DataContext.getDefault().getCelestialBodies());
+    }
+    
+    /** Get a list of celestial bodies
+     * @param key the parameter key
+     * @param celestialBodies the celestial bodies of the data context
+     * @return the list of bodies
+     * @throws OrekitException if the body cannot be returned
+     */
+    public List<CelestialBody> getCelectialBodies(final Key key, final CelestialBodies celestialBodies) 
+    		throws OrekitException {
     	final String[] bodyNames = getString(key).split("\\|");
     	
     	List<CelestialBody> bodies = new ArrayList<>(bodyNames.length);
     	for (String name : bodyNames) {
-    		bodies.add(CelestialBodyFactory.getBody(name.trim()));
+    		bodies.add(celestialBodies.getBody(name.trim()));
     	}
     	
     	return bodies;
@@ -36,6 +36,45 @@ public interface Messages {
     /** Orekit execution time (us):. */
     String EXEC_OREKIT_TIME = "Orekit execution time (s): ";
 
+    /** Infrared flux error against the reference grid. */
+    String IR_FLUX_ERROR = "Infrared flux relative error against the {0} deg reference grid (max, mean): ";
+
+    /** Infrared acceleration difference between the two flux methods. */
+    String IR_VALIDATION = "Infrared acceleration difference {0} - {1} along the trajectory (max, rms in m/s², max relative): ";
+
+    /** The SIMD infrared kernel cannot be loaded. */
+    String IR_VECTOR_UNAVAILABLE = "The vector infrared kernel is not available (jdk.incubator.vector module missing), the scalar loop is used";
+
+    /** Infrared flux table loaded from the cache. */
+    String IR_TABLE_LOADED = "Infrared flux table loaded from the cache (s): ";
+
+    /** Infrared flux table computed. */
+    String IR_TABLE_COMPUTED = "Infrared flux table computed (s): ";
+
+    /** Infrared flux table not written in the cache. */
+    String IR_TABLE_CACHE_ERROR = "Infrared flux table not cached, it will be computed again: ";
+
+    /** Solar indices not written in the cache. */
+    String INDICES_CACHE_ERROR = "JB2008 solar indices not cached, they will be parsed again: ";
+
+    /** Infrared flux evaluations computed and answered by the memo. */
+    String IR_MEMO = "Infrared flux evaluations (computed, reused): ";
+
+    /** JB2008 density grid error against the exact model. */
+    String DENSITY_GRID_ERROR = "JB2008 density grid relative error along the trajectory (max, rms): ";
+
+    /** Propagation with another atmosphere model. */
+    String ATMOSPHERE_COMPARE_RUN = "Propagation with the atmosphere model ";
+
+    /** Cost and accuracy of an atmosphere model against the selected one. */
+    String ATMOSPHERE_COMPARE = "Atmosphere model {0} against {1} (propagation time in s, max position difference in m): ";
+
+    /** Atmosphere model whose propagation could not be set up. */
+    String ATMOSPHERE_COMPARE_FAILED = "Atmosphere model {0} against {1}: FAILED, the propagation could not be set up";
+
+    /** Atmosphere model whose propagation ended before the end date. */
+    String ATMOSPHERE_COMPARE_ENDED = "Atmosphere model {0} against {1}: FAILED, the propagation ended at t (s) = ";
+
     /** Cannot create output folder. */
     String ERR_CREATE_OUT_FOLDER = "Cannot create output folder";
     
@@ -0,0 +1,64 @@
+package eu.esa.orbiprotester.utils;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.orekit.data.DataContext;
+import org.orekit.data.DirectoryCrawler;
+import org.orekit.data.LazyLoadedDataContext;
+import org.orekit.errors.OrekitException;
+
+/** Orekit data contexts shared by all the tests of the process, one per orekit data folder.
+ * <p>
+ * A context keeps the data it has loaded (time scales, EOP, celestial bodies, gravity
+ * fields), so the tests using the same folder only pay the loading cost once.
+ * </p>
+ */
+public final class OrekitDataContexts {
+
+    /** The data contexts, indexed by absolute orekit data folder. */
+    private static final Map<File, LazyLoadedDataContext> CONTEXTS = new ConcurrentHashMap<File, LazyLoadedDataContext>();
+
+    /** The data context set as default, null until the first test. */
+    private static LazyLoadedDataContext defaultContext;
+
+    /**
+     * Private constructor. This class cannot be instantiated.
+     */
+    private OrekitDataContexts() {
+        //Nothing to do
+    }
+
+    /** Get the data context of an orekit data folder, creating it on first use.
+     * @param folder the orekit data folder
+     * @return the data context reading the folder
+     * @throws OrekitException if the folder is not a directory
+     */
+    public static LazyLoadedDataContext getContext(final File folder) throws OrekitException {
+        return CONTEXTS.computeIfAbsent(folder.getAbsoluteFile(), f -> {
+            final LazyLoadedDataContext context = new LazyLoadedDataContext();
+            context.getDataProvidersManager().addProvider(new DirectoryCrawler(f));
+            return context;
+        });
+    }
+
+    /** Make the data context of an orekit data folder the default one, if no default was set yet.
+     * <p>
+     * The tests read their data through their own context, the default context is only
+     * used by the code without explicit context. It is set once, by the first test, so
+     * the tests running concurrently with other folders do not replace it.
+     * </p>
+     * @param folder the orekit data folder
+     * @return the default data context
+     * @throws OrekitException if the folder is not a directory
+     */
+    public static synchronized DataContext initDefault(final File folder) throws OrekitException {
+        if (defaultContext == null) {
+            defaultContext = getContext(folder);
+            DataContext.setDefault(defaultContext);
+        }
+        return defaultContext;
+    }
+
+}
@@ -0,0 +1,41 @@
+package org.orekit.forces.radiation;
+
+/**
+ * Summation kernel of the infrared grid cells
+ * <p>
+ * The scalar kernel is implemented in {@link InfraredContribution}, the SIMD kernel
+ * (InfraredVectorKernel) is compiled separately with the vector profile and loaded
+ * only when the jdk.incubator.vector module is available.
+ * </p>
+ */
+interface InfraredCellKernel {
+	
+	/**
+	 * ACCUMULATE Add the flux of the visible cells in the range [from, to) to the accumulator
+	 * @param from first cell index
+	 * @param to last cell index (excluded)
+	 * @param cellX x coordinates of the cell centres
+	 * @param cellY y coordinates of the cell centres
+	 * @param cellZ z coordinates of the cell centres
+	 * @param normalX x components of the cell normals
+	 * @param normalY y components of the cell normals
+	 * @param normalZ z components of the cell normals
+	 * @param px satellite position x
+	 * @param py satellite position y
+	 * @param pz satellite position z
+	 * @param pNorm satellite distance to the body centre
+	 * @param cosHorizon cosine of the horizon angle
+	 * @param weight emissivity * pressure * area / (4 * PI) of the cells
+	 * @param sunX x component of the unit vector toward the Sun
+	 * @param sunY y component of the unit vector toward the Sun
+	 * @param sunZ z component of the unit vector toward the Sun
+	 * @param albedoWeight albedo * pressure * area / PI of the cells, 0 without albedo
+	 * @param acc the flux accumulator
+	 */
+	void accumulate(int from, int to,
+			double[] cellX, double[] cellY, double[] cellZ,
+			double[] normalX, double[] normalY, double[] normalZ,
+			double px, double py, double pz, double pNorm,
+			double cosHorizon, double weight,
+			double sunX, double sunY, double sunZ, double albedoWeight, double[] acc);
+}
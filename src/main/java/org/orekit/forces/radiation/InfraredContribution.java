@@ -1,7 +1,23 @@
 package org.orekit.forces.radiation;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.stream.Stream;
 
 import org.hipparchus.Field;
@@ -32,6 +48,24 @@ import org.orekit.utils.ParameterDriver;
 
 public class InfraredContribution extends AbstractRadiationForceModel {
 
+	/**
+	 * Coefficients of the Knocke emissivity model
+	 */
+	private static final double EMISSIVITY_E0 = 0.68;
+	private static final double EMISSIVITY_K0 = 0;
+	private static final double EMISSIVITY_K1 = -0.07;
+	private static final double EMISSIVITY_K2 = 0;
+	private static final double EMISSIVITY_E2 = -0.18;
+
+	/**
+	 * Coefficients of the Knocke albedo model
+	 */
+	private static final double ALBEDO_A0 = 0.34;
+	private static final double ALBEDO_C0 = 0;
+	private static final double ALBEDO_C1 = 0.10;
+	private static final double ALBEDO_C2 = 0;
+	private static final double ALBEDO_A2 = 0.29;
+
 	/**
 	 * Infrared contribution type
 	 * radiationType@forces.radiation.RadiationType; - matlab
@@ -92,6 +126,225 @@ public class InfraredContribution extends AbstractRadiationForceModel {
 	 */
 	public double rawAlbedo;
 	
+	/**
+	 * Number of latitude rows of the emitter grid
+	 */
+	private int gridRows;
+	
+	/**
+	 * Number of longitude columns of the emitter grid
+	 */
+	private int gridColumns;
+	
+	/**
+	 * Latitude of the cell centres, one value per row (rad)
+	 */
+	private double[] rowLatitude;
+	
+	/**
+	 * Sine and cosine of the latitude of the cell centres, one value per row
+	 */
+	private double[] rowSinLatitude;
+	private double[] rowCosLatitude;
+	
+	/**
+	 * Area of the cells, one value per row (m²)
+	 */
+	private double[] rowArea;
+	
+	/**
+	 * Longitude spacing of the grid columns (rad)
+	 */
+	private double columnStep;
+	
+	/**
+	 * If true, only the cells above the satellite horizon (angle below acos(R/r)) are visible.
+	 * If false, the legacy criterion is used: all the cells of the hemisphere facing the satellite.
+	 */
+	private boolean horizonCulling = true;
+	
+	/**
+	 * Emissivity of the cells, one value per row, valid at emissivityDate
+	 */
+	private double[] rowEmissivity;
+	
+	/**
+	 * Date of the last emissivity table refresh
+	 */
+	private AbsoluteDate emissivityDate;
+	
+	/**
+	 * The emissivity table is refreshed when the date moves by more than this tolerance (s)
+	 */
+	private double emissivityTolerance = 0.0;
+	
+	/**
+	 * Linear emissivity coefficient e1, valid at emissivityDate
+	 */
+	private double emissivityE1;
+	
+	/**
+	 * Constant and quadratic emissivity coefficients e0 and e2
+	 */
+	private double emissivityE0 = EMISSIVITY_E0;
+	private double emissivityE2 = EMISSIVITY_E2;
+	
+	/**
+	 * If false the emitted flux is not summed on the grid (analytical or tabulated flux), valid during a grid pass
+	 */
+	private boolean gridEmission = true;
+	
+	/**
+	 * Settings of the adaptive grid: ring width at the nadir (deg) and growth ratio
+	 */
+	private double adaptiveNadirStep;
+	private double adaptiveGrowth;
+	
+	/**
+	 * Tabulated emitted flux, (up, east, north) components at the nodes (altitude, latitude, longitude):
+	 * part independent of the date and part proportional to the e1 emissivity coefficient
+	 */
+	private double[] tableBase;
+	private double[] tableE1;
+	
+	/**
+	 * Error of the flux table writing in the cache folder, null if the table was read or written
+	 */
+	private IOException tableCacheError;
+	
+	/**
+	 * Nodes of the flux table: first altitude (m), altitude step (m), angular step (rad) and node numbers
+	 */
+	private double tableAltitudeMin;
+	private double tableAltitudeStep;
+	private double tableAngleStep;
+	private int tableAltitudes;
+	private int tableLatitudes;
+	private int tableLongitudes;
+	
+	/**
+	 * If true the reflected sunlight (albedo) is added to the emitted flux, in the same grid pass
+	 */
+	private boolean albedo = false;
+	
+	/**
+	 * Albedo of the cells, one value per row, valid at emissivityDate
+	 */
+	private double[] rowAlbedo;
+	
+	/**
+	 * Linear albedo coefficient a1, valid at emissivityDate
+	 */
+	private double albedoA1;
+	
+	/**
+	 * Unit vector from the body centre toward the Sun, valid during a grid pass
+	 */
+	private double sunX;
+	private double sunY;
+	private double sunZ;
+	
+	/**
+	 * If true the flux is computed on the adaptive grid centred on the sub-satellite point
+	 */
+	private boolean adaptive = false;
+	
+	/**
+	 * Rings of the adaptive grid: inner and outer angular radius from the sub-satellite point (rad)
+	 */
+	private double[] ringInner;
+	private double[] ringOuter;
+	
+	/**
+	 * Rings of the adaptive grid: index of the first cell and number of cells
+	 */
+	private int[] ringStart;
+	private int[] ringCells;
+	
+	/**
+	 * Cosine and sine of the azimuth of the adaptive grid cells
+	 */
+	private double[] cellCosAzimuth;
+	private double[] cellSinAzimuth;
+	
+	/**
+	 * Class name of the SIMD summation kernel, compiled with the vector profile
+	 */
+	private static final String VECTOR_KERNEL = "org.orekit.forces.radiation.InfraredVectorKernel";
+	
+	/**
+	 * Minimum number of rows of a latitude band evaluated by a single fork-join task
+	 */
+	private static final int PARALLEL_BAND_ROWS = 8;
+	
+	/**
+	 * The regular grid is evaluated in parallel if it has at least this number of cells
+	 */
+	private int parallelThreshold = org.orekit.forces.radiation.SolarRadiationConstants.PARALLEL_CELL_THRESHOLD;
+	
+	/**
+	 * Flux of each row of the regular grid (x, y, z), indexed 3 * row
+	 */
+	private double[] rowFlux;
+	
+	/**
+	 * SIMD summation kernel of the regular grid, null for the scalar loop
+	 */
+	private InfraredCellKernel cellKernel = null;
+	
+	/**
+	 * Method used to compute the flux
+	 */
+	private InfraredFluxMethod fluxMethod = InfraredFluxMethod.GRID;
+	
+	/**
+	 * Polynomial coefficients of the analytical method, reused between evaluations
+	 */
+	private final double[] polynomial = new double[5];
+	
+	/**
+	 * The last computed flux is reused if the satellite moved by less than this distance (m), 0 to disable
+	 */
+	private double memoDistance = 0.0;
+	
+	/**
+	 * If true the reused flux is linearly extrapolated from the last two computed fluxes
+	 */
+	private boolean memoExtrapolation = true;
+	
+	/**
+	 * Positions and fluxes of the last two full evaluations, null if not available
+	 */
+	private Vector3D memoPosition;
+	private Vector3D memoFlux;
+	private Vector3D memoPreviousPosition;
+	private Vector3D memoPreviousFlux;
+	
+	/**
+	 * Number of full evaluations and of evaluations answered by the memo
+	 */
+	private long fullEvaluations;
+	private long memoEvaluations;
+	
+	/**
+	 * Accumulator for the flux of the visited cells, reused between evaluations
+	 */
+	private final double[] fluxAccumulator = new double[3];
+	
+	/**
+	 * Cartesian coordinates of the cell centres, indexed row * gridColumns + column (m)
+	 */
+	private double[] cellX;
+	private double[] cellY;
+	private double[] cellZ;
+	
+	/**
+	 * Unit normals of the cells, indexed row * gridColumns + column
+	 */
+	private double[] normalX;
+	private double[] normalY;
+	private double[] normalZ;
+	
 	/**
 	 * INFRAREDCONTRIBUTION Constructors
 	 * 
@@ -179,6 +432,8 @@ public class InfraredContribution extends AbstractRadiationForceModel {
 			this.rawAlbedo = org.orekit.forces.radiation.SolarRadiationConstants.ALBEDO_NEPTUNE;
 			break;
 		}
+		
+		buildGrid();
 	}
 	
 	public InfraredContribution( RadiationType radiationType, 
@@ -250,6 +505,8 @@ public class InfraredContribution extends AbstractRadiationForceModel {
 			this.rawAlbedo = org.orekit.forces.radiation.SolarRadiationConstants.ALBEDO_NEPTUNE;
 			break;
 		}
+		
+		buildGrid();
 	}
 	
     /** {@inheritDoc} */
@@ -273,57 +530,505 @@ public class InfraredContribution extends AbstractRadiationForceModel {
 
 	/**
 	 * Compute the contribution of the force model to the perturbing acceleration
+	 * <p>
+	 * The emitter grid is precomputed by {@link #buildGrid()}, so the loop over
+	 * the cells only works on primitive arrays and does not allocate.
+	 * Only the cells inside the spherical cap visible from the satellite,
+	 * bounded by the horizon angle acos(R/r), are enumerated (or by 90 degrees
+	 * if {@link #setHorizonCulling(boolean) horizon culling} is disabled).
+	 * </p>
 	 * @param SpaceCraft
 	 * @param parameters
 	 */
 	public Vector3D acceleration(final SpacecraftState spaceCraft, final double[] parameters) {
-		// TODO Auto-generated method stub
 		
 		final AbsoluteDate date         = spaceCraft.getDate();
         final Frame        frame        = spaceCraft.getFrame();
         final Vector3D     position     = spaceCraft.getPVCoordinates().getPosition();
-		Vector3D flux = Vector3D.ZERO;
+        
+		final Vector3D flux = computeFlux(date, frame, position);
+        Vector3D acceleration = spacecraft.radiationPressureAcceleration(date, frame, position, spaceCraft.getAttitude().getRotation(),
+                spaceCraft.getMass(), flux, parameters);
+		return acceleration;
+	}
+	
+	/**
+	 * COMPUTEFLUX Compute the flux received from the central body at the given position
+	 * <p>
+	 * If the {@link #setAlbedo(boolean) albedo} is enabled, the reflected sunlight is
+	 * added to the emitted flux in the same grid pass. With the analytical method only
+	 * the emitted flux has a closed form, the albedo is still summed on the grid.
+	 * </p>
+	 * @param date the current date
+	 * @param frame the frame of the position, in which the grid is defined
+	 * @param position the satellite position
+	 * @return the flux vector (N/m²)
+	 */
+	public Vector3D computeFlux(final AbsoluteDate date, final Frame frame, final Vector3D position) {
+		
+        if(this.memoDistance > 0)
+        {
+        	final Vector3D memo = reuseFlux(position);
+        	if(memo != null)
+        	{
+        		this.memoEvaluations++;
+        		return memo;
+        	}
+        	final Vector3D flux = evaluateFlux(date, frame, position);
+        	this.memoPreviousPosition = this.memoPosition;
+        	this.memoPreviousFlux     = this.memoFlux;
+        	this.memoPosition         = position;
+        	this.memoFlux             = flux;
+        	return flux;
+        }
+        
+        return evaluateFlux(date, frame, position);
+	}
+	
+	/**
+	 * REUSEFLUX Reuse the last computed flux if the satellite did not move too much
+	 * <p>
+	 * The integrator evaluates the force models several times per step at close
+	 * positions. If the satellite is closer than the memo distance to the position
+	 * of the last full evaluation, its flux is reused. With the extrapolation, the
+	 * flux is linearly extrapolated along the segment joining the positions of the
+	 * last two full evaluations, if this segment is longer than the displacement.
+	 * </p>
+	 * @param position the satellite position
+	 * @return the reused flux, or null if a full evaluation is needed
+	 */
+	private Vector3D reuseFlux(final Vector3D position)
+	{
+		if(this.memoPosition == null)
+		{
+			return null;
+		}
+		final Vector3D displacement = position.subtract(this.memoPosition);
+		final double distanceSq = displacement.getNormSq();
+		if(distanceSq > this.memoDistance * this.memoDistance)
+		{
+			return null;
+		}
 		
-		for(int i = 1; i <= this.sy; i++)
+		if(this.memoExtrapolation && this.memoPreviousPosition != null)
 		{
-			for(int j = 1; j <= this.sx; j++)
+			final Vector3D segment = this.memoPosition.subtract(this.memoPreviousPosition);
+			final double segmentSq = segment.getNormSq();
+			if(segmentSq >= distanceSq && segmentSq > 0)
 			{
-				double emiss;
-				//[phi, theta]
-				double[] angles = indexToRadian(i, j, this.sy, this.sx);
+				// abscissa of the position along the segment, 0 at the last full evaluation
+				final double s = Vector3D.dotProduct(displacement, segment) / segmentSq;
+				return new Vector3D(1 + s, this.memoFlux, -s, this.memoPreviousFlux);
+			}
+		}
+		
+		return this.memoFlux;
+	}
+	
+	/**
+	 * EVALUATEFLUX Compute the flux received from the central body at the given position
+	 * @param date the current date
+	 * @param frame the frame of the position, in which the grid is defined
+	 * @param position the satellite position
+	 * @return the flux vector (N/m²)
+	 */
+	private Vector3D evaluateFlux(final AbsoluteDate date, final Frame frame, final Vector3D position) {
+		
+        this.fullEvaluations++;
+        updateEmissivity(date);
+        
+        final double[] acc = this.fluxAccumulator;
+        acc[0] = 0.0;
+        acc[1] = 0.0;
+        acc[2] = 0.0;
+        
+        Vector3D emitted = null;
+        if(this.fluxMethod == InfraredFluxMethod.ANALYTICAL)
+        {
+        	emitted = computeAnalyticalFlux(position);
+        }
+        else if(this.fluxMethod == InfraredFluxMethod.TABLE)
+        {
+        	// null outside of the table, the emitted flux is then summed on the grid
+        	emitted = interpolateFlux(position);
+        }
+        
+        if(emitted != null)
+        {
+        	if(!this.albedo)
+        	{
+        		return emitted;
+        	}
+        	acc[0] = emitted.getX();
+        	acc[1] = emitted.getY();
+        	acc[2] = emitted.getZ();
+        }
+        this.gridEmission = (emitted == null);
+        
+        if(this.albedo)
+        {
+        	final Vector3D sunDirection = this.sun.getPVCoordinates(date, frame).getPosition().normalize();
+        	this.sunX = sunDirection.getX();
+        	this.sunY = sunDirection.getY();
+        	this.sunZ = sunDirection.getZ();
+        }
+        
+        if(this.adaptive)
+        {
+        	accumulateAdaptiveGrid(position, acc);
+        }
+        else
+        {
+        	accumulateGrid(position, acc);
+        }
+        
+		return new Vector3D(acc[0], acc[1], acc[2]);
+	}
+	
+	/**
+	 * ACCUMULATEGRID Add the flux of the visible cells of the regular grid to the accumulator
+	 * <p>
+	 * The flux of each row is summed separately, then the rows are added in order.
+	 * Above the {@link #setParallelThreshold(int) parallel threshold} the rows are
+	 * split in latitude bands evaluated in the fork-join common pool; as each row is
+	 * still summed by a single thread the result does not depend on the number of threads.
+	 * </p>
+	 * @param position the satellite position
+	 * @param acc the flux accumulator
+	 */
+	private void accumulateGrid(final Vector3D position, final double[] acc) {
+		
+        final double px    = position.getX();
+        final double py    = position.getY();
+        final double pz    = position.getZ();
+        final double pNorm = Math.sqrt(px * px + py * py + pz * pz);
+        
+        if(this.gridRows * this.gridColumns >= this.parallelThreshold)
+        {
+        	ForkJoinPool.commonPool().invoke(new RowBand(0, this.gridRows, px, py, pz, pNorm));
+        }
+        else
+        {
+        	accumulateRows(0, this.gridRows, px, py, pz, pNorm);
+        }
+        
+        for(int i = 0; i < this.gridRows; i++)
+        {
+        	acc[0] += this.rowFlux[3 * i];
+        	acc[1] += this.rowFlux[3 * i + 1];
+        	acc[2] += this.rowFlux[3 * i + 2];
+        }
+	}
+	
+	/**
+	 * ACCUMULATEROWS Compute the flux of the visible cells of the rows [firstRow, lastRow)
+	 * <p>
+	 * The flux of each row is stored in rowFlux, the rows below the horizon get a zero flux.
+	 * </p>
+	 * @param firstRow first row index
+	 * @param lastRow last row index (excluded)
+	 * @param px satellite position x
+	 * @param py satellite position y
+	 * @param pz satellite position z
+	 * @param pNorm satellite distance to the body centre
+	 */
+	private void accumulateRows(int firstRow, int lastRow, double px, double py, double pz, double pNorm) {
+		
+        // a cell is visible if the angle between its normal and the satellite direction is below acos(R/r)
+        final double cosHorizon = this.horizonCulling ? this.bodyShape.getEquatorialRadius() / pNorm : 0.0;
+        
+        // sub-satellite point
+        final double sinSatLatitude = pz / pNorm;
+        final double cosSatLatitude = Math.sqrt(px * px + py * py) / pNorm;
+        final double satLongitude   = Math.atan2(py, px);
+        
+        // continuous column index of the sub-satellite meridian
+        final double satColumn = (Math.PI - satLongitude) / this.columnStep - 0.5;
+        
+        final double[] acc = new double[3];
+		
+		for(int i = firstRow; i < lastRow; i++)
+		{
+			acc[0] = 0.0;
+			acc[1] = 0.0;
+			acc[2] = 0.0;
+			
+			// the row intersects the cap where cos(dLongitude) >= num / den
+			final double num = cosHorizon - this.rowSinLatitude[i] * sinSatLatitude;
+			final double den = this.rowCosLatitude[i] * cosSatLatitude;
+			if(num <= den)
+			{
+				final double weight = this.gridEmission ?
+						this.rowEmissivity[i] * this.solarPressure * this.rowArea[i] / (4 * Math.PI) : 0.0;
+				final double albedoWeight = this.albedo ? this.rowAlbedo[i] * this.solarPressure * this.rowArea[i] / Math.PI : 0.0;
 				
-				double R = this.bodyShape.getEquatorialRadius();
-				Vector3D gridCartesianPoint = new Vector3D(R * Math.cos(angles[0]) * Math.cos(angles[1]),
-														   R * Math.cos(angles[0]) * Math.sin(angles[1]),
-														   R * Math.sin(angles[0]));
-				double satGridAngle = Vector3D.angle(gridCartesianPoint, position);
-				if( Math.cos(satGridAngle) >= 0)
+				final int rowStart = i * this.gridColumns;
+				final double halfWidth = (num <= -den) ? Double.POSITIVE_INFINITY : Math.acos(num / den) / this.columnStep;
+				if(2 * halfWidth + 4 >= this.sx)
 				{
-					if(this.radiationType == org.orekit.forces.radiation.RadiationType.EARTH)
-					{
-						emiss = this.computeEmissivity(date, angles[0]);
-					}
-					else
+					accumulateCells(rowStart, rowStart + this.gridColumns, px, py, pz, pNorm, cosHorizon, weight, albedoWeight, acc);
+				}
+				else
+				{
+					// visible columns, with a one cell margin, for the meridian and its two wrapped images
+					for(int m = -1; m <= 1; m++)
 					{
-						emiss = 1 - this.rawAlbedo;
+						final int first = Math.max(0, (int) Math.ceil(satColumn - halfWidth + m * this.sx - 1));
+						final int last  = Math.min(this.gridColumns - 1, (int) Math.floor(satColumn + halfWidth + m * this.sx + 1));
+						if(first <= last)
+						{
+							accumulateCells(rowStart + first, rowStart + last + 1, px, py, pz, pNorm, cosHorizon, weight, albedoWeight, acc);
+						}
 					}
-					double gridArea = computeArea(this.bodyShape.getEquatorialRadius(), i, this.sy, this.sx);
-					double satGridDistance = Vector3D.distance(position, gridCartesianPoint);
-					//double satGridDistance = Vector3D.distanceSq(position, gridCartesianPoint);
-					double Eincident = this.solarPressure * gridArea;
-					
-					//Vector3D positionAux = position;
-					flux = flux.add( emiss / (4 * Math.PI * Math.pow(satGridDistance, 2))*(
-										  Eincident * Math.cos(satGridAngle)), position.subtract(gridCartesianPoint).normalize());
-					
 				}
 			}
+			
+			this.rowFlux[3 * i]     = acc[0];
+			this.rowFlux[3 * i + 1] = acc[1];
+			this.rowFlux[3 * i + 2] = acc[2];
+		}
+	}
+	
+	/**
+	 * Latitude band of the regular grid, split in two halves until it is small enough
+	 */
+	private class RowBand extends RecursiveAction {
+		
+		/** Serializable UID. */
+		private static final long serialVersionUID = 20261018L;
+		
+		/** Rows of the band [firstRow, lastRow). */
+		private final int firstRow;
+		private final int lastRow;
+		
+		/** Satellite position and distance to the body centre. */
+		private final double px;
+		private final double py;
+		private final double pz;
+		private final double pNorm;
+		
+		RowBand(int firstRow, int lastRow, double px, double py, double pz, double pNorm)
+		{
+			this.firstRow = firstRow;
+			this.lastRow  = lastRow;
+			this.px       = px;
+			this.py       = py;
+			this.pz       = pz;
+			this.pNorm    = pNorm;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if(this.lastRow - this.firstRow <= PARALLEL_BAND_ROWS)
+			{
+				accumulateRows(this.firstRow, this.lastRow, this.px, this.py, this.pz, this.pNorm);
+			}
+			else
+			{
+				final int middle = (this.firstRow + this.lastRow) >>> 1;
+				invokeAll(new RowBand(this.firstRow, middle, this.px, this.py, this.pz, this.pNorm),
+						  new RowBand(middle, this.lastRow, this.px, this.py, this.pz, this.pNorm));
+			}
 		}
+	}
+	
+	/**
+	 * ACCUMULATEADAPTIVEGRID Add the flux of the adaptive grid cells to the accumulator
+	 * <p>
+	 * The adaptive grid is made of rings centred on the sub-satellite point: the rings
+	 * are narrow close to the nadir and wider toward the horizon. The last visible ring
+	 * is clipped at the horizon angle.
+	 * </p>
+	 * @param position the satellite position
+	 * @param acc the flux accumulator
+	 */
+	private void accumulateAdaptiveGrid(final Vector3D position, final double[] acc) {
+		
+		final double R     = this.bodyShape.getEquatorialRadius();
+        final double px    = position.getX();
+        final double py    = position.getY();
+        final double pz    = position.getZ();
+        final double pNorm = Math.sqrt(px * px + py * py + pz * pz);
+        
+        // satellite direction and two unit vectors orthogonal to it (toward east and north)
+        final double ux = px / pNorm;
+        final double uy = py / pNorm;
+        final double uz = pz / pNorm;
+        final double horizontal = Math.sqrt(ux * ux + uy * uy);
+        final double ex = (horizontal > 1.0e-12) ? -uy / horizontal : 0.0;
+        final double ey = (horizontal > 1.0e-12) ?  ux / horizontal : 1.0;
+        final double nx = -uz * ey;
+        final double ny =  uz * ex;
+        final double nz =  ux * ey - uy * ex;
         
+        final double capAngle = this.horizonCulling ? Math.acos(Math.min(1.0, R / pNorm)) : Math.PI / 2;
+        
+        for(int k = 0; k < this.ringInner.length && this.ringInner[k] < capAngle; k++)
+        {
+        	final double outer = Math.min(this.ringOuter[k], capAngle);
+        	final double mid   = (k == 0) ? 0.0 : 0.5 * (this.ringInner[k] + outer);
+        	final double cosMid = Math.cos(mid);
+        	final double sinMid = Math.sin(mid);
+        	final double area   = R * R * (Math.cos(this.ringInner[k]) - Math.cos(outer)) * 2 * Math.PI / this.ringCells[k];
+        	final double weight = this.gridEmission ? this.solarPressure * area / (4 * Math.PI) : 0.0;
+        	final double albedoWeight = this.albedo ? this.solarPressure * area / Math.PI : 0.0;
+        	
+        	for(int c = this.ringStart[k]; c < this.ringStart[k] + this.ringCells[k]; c++)
+        	{
+        		// unit normal of the cell
+        		final double cx = sinMid * (this.cellCosAzimuth[c] * ex + this.cellSinAzimuth[c] * nx) + cosMid * ux;
+        		final double cy = sinMid * (this.cellCosAzimuth[c] * ey + this.cellSinAzimuth[c] * ny) + cosMid * uy;
+        		final double cz = sinMid * (this.cellSinAzimuth[c] * nz) + cosMid * uz;
+        		
+        		final double dx = px - R * cx;
+        		final double dy = py - R * cy;
+        		final double dz = pz - R * cz;
+        		final double satGridDistanceSq = dx * dx + dy * dy + dz * dz;
+        		final double satGridDistance   = Math.sqrt(satGridDistanceSq);
+        		
+        		// the z component of the normal is the sine of the cell latitude
+        		double w = cellEmissivity(cz) * weight;
+        		if(albedoWeight != 0.0)
+        		{
+        			// only the sunlit cells reflect
+        			w += cellAlbedo(cz) * albedoWeight * Math.max(0.0, cx * this.sunX + cy * this.sunY + cz * this.sunZ);
+        		}
+        		final double f = w * cosMid / (satGridDistanceSq * satGridDistance);
+        		acc[0] += f * dx;
+        		acc[1] += f * dy;
+        		acc[2] += f * dz;
+        	}
+        }
+	}
+
+	/**
+	 * COMPUTEANALYTICALFLUX Compute the flux by closed form integration over the visible cap
+	 * <p>
+	 * The emissivity e0 + e1 P1(sin(phi)) + e2 P2(sin(phi)) is a degree 2 zonal spherical
+	 * harmonic expansion, so its integral over the azimuth around the sub-satellite point
+	 * is a polynomial of x = cos(rho), rho being the angle from the nadir. The remaining
+	 * integral over x has the form P(x) / (r² + R² - 2 r R x)^(3/2) and is computed exactly
+	 * with the substitution u = (r² + R² - 2 r R x) / (2 r R). The result is the limit of
+	 * the grid quadrature when the grid spacing goes to zero, for a constant cost.
+	 * </p>
+	 * @param position the satellite position
+	 * @return the flux vector (N/m²)
+	 */
+	private Vector3D computeAnalyticalFlux(final Vector3D position) {
 		
-        Vector3D acceleration = spacecraft.radiationPressureAcceleration(date, frame, position, spaceCraft.getAttitude().getRotation(),
-                spaceCraft.getMass(), flux, parameters);
-		return acceleration;
+		final double R     = this.bodyShape.getEquatorialRadius();
+        final double px    = position.getX();
+        final double py    = position.getY();
+        final double pz    = position.getZ();
+        final double pNorm = Math.sqrt(px * px + py * py + pz * pz);
+        
+        // satellite direction and unit vector toward north in the local horizontal plane
+        final double ux = px / pNorm;
+        final double uy = py / pNorm;
+        final double uz = pz / pNorm;
+        final double horizontal = Math.sqrt(ux * ux + uy * uy);
+        final double ex = (horizontal > 1.0e-12) ? -uy / horizontal : 0.0;
+        final double ey = (horizontal > 1.0e-12) ?  ux / horizontal : 1.0;
+        final double nx = -uz * ey;
+        final double ny =  uz * ex;
+        final double nz =  ux * ey - uy * ex;
+        
+        // zonal emissivity coefficients
+        final double e0;
+        final double e1;
+        final double e2;
+        if(this.radiationType == org.orekit.forces.radiation.RadiationType.EARTH)
+        {
+        	e0 = this.emissivityE0;
+        	e1 = this.emissivityE1;
+        	e2 = this.emissivityE2;
+        }
+        else
+        {
+        	e0 = 1 - this.rawAlbedo;
+        	e1 = 0.0;
+        	e2 = 0.0;
+        }
+        
+        // sine and cosine of the sub-satellite latitude
+        final double c = uz;
+        final double s = horizontal;
+        
+        // lower bound of x = cos(rho) over the visible cap
+        final double xMin = this.horizonCulling ? Math.min(1.0, R / pNorm) : 0.0;
+        
+        // radial component: azimuth average of the emissivity times x (r - R x)
+        final double g0 = e0 + e2 * (0.75 * s * s - 0.5);
+        final double g1 = e1 * c;
+        final double g2 = e2 * (1.5 * c * c - 0.75 * s * s);
+        final double[] a = this.polynomial;
+        a[0] = 0.0;
+        a[1] = pNorm * g0;
+        a[2] = pNorm * g1 - R * g0;
+        a[3] = pNorm * g2 - R * g1;
+        a[4] = -R * g2;
+        final double radial = this.solarPressure * R * R / 2 * integrateCap(a, R, pNorm, xMin);
+        
+        // north component: azimuth integral of the emissivity times sin(azimuth), times x (1 - x²)
+        final double k = 3 * e2 * c;
+        a[0] = 0.0;
+        a[1] = e1;
+        a[2] = k;
+        a[3] = -e1;
+        a[4] = -k;
+        final double north = -this.solarPressure * R * R * R * s / 4 * integrateCap(a, R, pNorm, xMin);
+        
+		return new Vector3D(radial * ux + north * nx, radial * uy + north * ny, radial * uz + north * nz);
+	}
+	
+	/**
+	 * INTEGRATECAP Compute the integral of P(x) / (r² + R² - 2 r R x)^(3/2) for x in [xMin, 1]
+	 * <p>
+	 * With u = (r² + R² - 2 r R x) / (2 r R) the integrand becomes a sum of powers
+	 * u^(k - 3/2) which are integrated exactly.
+	 * </p>
+	 * @param a coefficients of the polynomial P, degree 4 at most (overwritten)
+	 * @param R the body radius
+	 * @param r the satellite distance to the body centre
+	 * @param xMin lower bound of the integral
+	 * @return the integral
+	 */
+	private static double integrateCap(final double[] a, final double R, final double r, final double xMin)
+	{
+		final double B = 2 * r * R;
+		
+		// bounds of u, x = alpha - u
+		final double u1    = (r - R) * (r - R) / B;
+		final double u0    = u1 + (1 - xMin);
+		final double alpha = 1 + u1;
+		
+		// coefficients of P(alpha - u) in powers of u (Horner scheme)
+		final double[] q = new double[a.length];
+		q[0] = a[a.length - 1];
+		for(int n = a.length - 2; n >= 0; n--)
+		{
+			for(int j = a.length - 1 - n; j > 0; j--)
+			{
+				q[j] = alpha * q[j] - q[j - 1];
+			}
+			q[0] = alpha * q[0] + a[n];
+		}
+		
+		// integral of u^(k - 3/2) between u1 and u0
+		final double sqrtU0 = Math.sqrt(u0);
+		final double sqrtU1 = Math.sqrt(u1);
+		double sum = 2 * (1 / sqrtU1 - 1 / sqrtU0) * q[0];
+		double pow0 = sqrtU0;
+		double pow1 = sqrtU1;
+		for(int k = 1; k < q.length; k++)
+		{
+			sum  += q[k] * (pow0 - pow1) / (k - 0.5);
+			pow0 *= u0;
+			pow1 *= u1;
+		}
+		
+		return sum / (B * Math.sqrt(B));
 	}
 
 	@Override
@@ -333,28 +1038,809 @@ public class InfraredContribution extends AbstractRadiationForceModel {
 	}
 
 
-	@Override
 	/**
-	 * Same as SolarRadiationPressure
+	 * Select the visibility criterion of the grid cells
+	 * @param horizonCulling if true (default) only the cells above the satellite horizon
+	 * are taken into account, if false all the cells of the hemisphere facing the satellite
 	 */
-	public ParameterDriver[] getParametersDrivers() {
-		
-		return spacecraft.getRadiationParametersDrivers();
+	public void setHorizonCulling(boolean horizonCulling)
+	{
+		this.horizonCulling = horizonCulling;
 	}
 	
-	
 	/**
-	 * InfraredContribution private functions
-	 * Added as private functions for performance only
+	 * Check the visibility criterion of the grid cells
+	 * @return true if only the cells above the satellite horizon are taken into account
 	 */
-	
-	private double[] indexToRadian(int i, int j, double sy, double sx)
+	public boolean isHorizonCulling()
 	{
-		double[] retVect = new double[2];
-		double ux = 2 * Math.PI / sx;
-		double uy = Math.PI / sy;
-		
-		retVect[0] = (-1) * (Math.PI / 2) + (i - 0.5) * uy;
+		return this.horizonCulling;
+	}
+
+	/**
+	 * Reuse the flux between close evaluations
+	 * <p>
+	 * The Runge-Kutta integrators evaluate the force models at several stages per step,
+	 * at close positions. When the satellite moved by less than the given distance since
+	 * the last full evaluation, the flux of that evaluation is reused, or linearly
+	 * extrapolated from the last two full evaluations. The counters of
+	 * {@link #getFullEvaluations()} and {@link #getMemoEvaluations()} tell how many
+	 * quadratures were skipped.
+	 * </p>
+	 * The counters are reset.
+	 * @param memoDistance the distance (m), 0 (default) to compute the flux at each evaluation
+	 * @param memoExtrapolation true to extrapolate the flux, false to reuse it as is
+	 */
+	public void setFluxMemo(double memoDistance, boolean memoExtrapolation)
+	{
+		this.memoDistance         = memoDistance;
+		this.memoExtrapolation    = memoExtrapolation;
+		this.memoPosition         = null;
+		this.memoFlux             = null;
+		this.memoPreviousPosition = null;
+		this.memoPreviousFlux     = null;
+		this.fullEvaluations      = 0;
+		this.memoEvaluations      = 0;
+	}
+	
+	/**
+	 * Get the distance below which the flux is reused
+	 * @return the distance (m), 0 if the memo is disabled
+	 */
+	public double getMemoDistance()
+	{
+		return this.memoDistance;
+	}
+	
+	/**
+	 * Get the number of evaluations where the flux was computed
+	 * @return the number of full evaluations
+	 */
+	public long getFullEvaluations()
+	{
+		return this.fullEvaluations;
+	}
+	
+	/**
+	 * Get the number of evaluations where the flux was reused or extrapolated
+	 * @return the number of skipped evaluations
+	 */
+	public long getMemoEvaluations()
+	{
+		return this.memoEvaluations;
+	}
+
+	/**
+	 * Add the reflected sunlight (albedo) to the emitted flux
+	 * <p>
+	 * The albedo is computed in the same pass over the grid as the emitted flux: the
+	 * cell geometry, the visibility test and the cell to satellite vectors are shared,
+	 * only the sunlit test of the cell is added. The Earth albedo follows the Knocke
+	 * model, the other bodies use their average albedo.
+	 * </p>
+	 * @param albedo true to add the albedo, false (default) for the emitted flux only
+	 */
+	public void setAlbedo(boolean albedo)
+	{
+		this.albedo = albedo;
+	}
+	
+	/**
+	 * Check if the albedo is added to the emitted flux
+	 * @return true if the albedo is added
+	 */
+	public boolean isAlbedo()
+	{
+		return this.albedo;
+	}
+
+	/**
+	 * Set the number of cells above which the regular grid is evaluated in parallel
+	 * <p>
+	 * The rows are split in latitude bands evaluated in the fork-join common pool.
+	 * The summation order does not depend on the number of threads, so the results
+	 * are identical to the sequential evaluation.
+	 * </p>
+	 * @param parallelThreshold the number of cells, Integer.MAX_VALUE to disable the parallel evaluation
+	 */
+	public void setParallelThreshold(int parallelThreshold)
+	{
+		this.parallelThreshold = parallelThreshold;
+	}
+	
+	/**
+	 * Get the number of cells above which the regular grid is evaluated in parallel
+	 * @return the number of cells
+	 */
+	public int getParallelThreshold()
+	{
+		return this.parallelThreshold;
+	}
+
+	/**
+	 * Enable the SIMD summation kernel of the regular grid
+	 * <p>
+	 * The kernel relies on the jdk.incubator.vector module: it must be compiled
+	 * with the vector profile and the JVM must be started with
+	 * --add-modules jdk.incubator.vector. If it cannot be loaded the scalar
+	 * loop is kept, see {@link #isVectorKernel()}. The results match the scalar
+	 * loop to within round-off, only the summation order differs.
+	 * </p>
+	 * @param enabled true to use the SIMD kernel
+	 */
+	public void setVectorKernel(boolean enabled)
+	{
+		this.cellKernel = enabled ? loadVectorKernel() : null;
+	}
+	
+	/**
+	 * Check if the SIMD summation kernel is used
+	 * @return true if the SIMD kernel is used, false for the scalar loop
+	 */
+	public boolean isVectorKernel()
+	{
+		return this.cellKernel != null;
+	}
+
+	/**
+	 * Select the method used to compute the flux
+	 * @param fluxMethod the method, {@link InfraredFluxMethod#GRID} by default
+	 */
+	public void setFluxMethod(InfraredFluxMethod fluxMethod)
+	{
+		this.fluxMethod = fluxMethod;
+	}
+	
+	/**
+	 * Get the error of the flux table writing in the cache folder
+	 * @return the error, null if the table was read or written, or if there is no table
+	 */
+	public IOException getTableCacheError()
+	{
+		return this.tableCacheError;
+	}
+	
+	/**
+	 * Get the method used to compute the flux
+	 * @return the method
+	 */
+	public InfraredFluxMethod getFluxMethod()
+	{
+		return this.fluxMethod;
+	}
+
+	/**
+	 * Set the date tolerance of the emissivity table
+	 * <p>
+	 * The emissivity of the grid rows only depends on the date and on the latitude.
+	 * It is stored in a table which is refreshed only when the date moves by more
+	 * than the given tolerance. With a zero tolerance (default) the table is
+	 * refreshed for each new date and the results are identical to a per cell evaluation.
+	 * </p>
+	 * @param emissivityTolerance the tolerance (s)
+	 */
+	public void setEmissivityTolerance(double emissivityTolerance)
+	{
+		this.emissivityTolerance = emissivityTolerance;
+		this.emissivityDate      = null;
+	}
+	
+	/**
+	 * Get the date tolerance of the emissivity table
+	 * @return the tolerance (s)
+	 */
+	public double getEmissivityTolerance()
+	{
+		return this.emissivityTolerance;
+	}
+
+	/**
+	 * Use an adaptive grid centred on the sub-satellite point instead of the regular grid
+	 * <p>
+	 * The first ring is a disk of angular radius nadirStep around the nadir, and each
+	 * following ring is growth times wider than the previous one. The rings are split
+	 * in approximately square cells.
+	 * </p>
+	 * @param nadirStep width of the rings at the nadir (deg)
+	 * @param growth width ratio between two consecutive rings (greater than or equal to 1)
+	 */
+	public void setAdaptiveGrid(double nadirStep, double growth)
+	{
+		final List<double[]> rings = new ArrayList<double[]>();
+		double inner = 0.0;
+		double width = Math.toRadians(nadirStep);
+		int cells = 0;
+		while(inner < Math.PI / 2)
+		{
+			// a remaining ring narrower than half its nominal width is merged in the current one
+			final double outer = (inner + width * (1 + 0.5 * growth) >= Math.PI / 2) ? Math.PI / 2 : inner + width;
+			final int ringCells = rings.isEmpty() ? 1 :
+				Math.max(4, (int) Math.round(2 * Math.PI * Math.sin(0.5 * (inner + outer)) / (outer - inner)));
+			rings.add(new double[] {inner, outer, ringCells});
+			cells += ringCells;
+			inner = outer;
+			width *= growth;
+		}
+		
+		this.ringInner      = new double[rings.size()];
+		this.ringOuter      = new double[rings.size()];
+		this.ringStart      = new int[rings.size()];
+		this.ringCells      = new int[rings.size()];
+		this.cellCosAzimuth = new double[cells];
+		this.cellSinAzimuth = new double[cells];
+		
+		int start = 0;
+		for(int k = 0; k < rings.size(); k++)
+		{
+			this.ringInner[k] = rings.get(k)[0];
+			this.ringOuter[k] = rings.get(k)[1];
+			this.ringCells[k] = (int) rings.get(k)[2];
+			this.ringStart[k] = start;
+			for(int c = 0; c < this.ringCells[k]; c++)
+			{
+				// cells of consecutive rings are staggered by half a cell
+				final double azimuth = 2 * Math.PI * (c + 0.5 * (k % 2)) / this.ringCells[k];
+				this.cellCosAzimuth[start + c] = Math.cos(azimuth);
+				this.cellSinAzimuth[start + c] = Math.sin(azimuth);
+			}
+			start += this.ringCells[k];
+		}
+		
+		this.adaptive          = true;
+		this.adaptiveNadirStep = nadirStep;
+		this.adaptiveGrowth    = growth;
+	}
+	
+	/**
+	 * Check if the adaptive grid is used
+	 * @return true if the flux is computed on the adaptive grid
+	 */
+	public boolean isAdaptive()
+	{
+		return this.adaptive;
+	}
+
+	/**
+	 * Tabulate the emitted flux and use the table instead of the grid quadrature
+	 * <p>
+	 * The emitted flux is computed with the current grid settings at the nodes of a
+	 * table (altitude, latitude, longitude) and is then interpolated at each evaluation.
+	 * The grid settings must therefore be set before the table is built. As the
+	 * emissivity is linear in its date dependent coefficient e1, the table stores the
+	 * flux for e1 = 0 and the flux per unit e1, so it is valid for any date. Outside of
+	 * the altitude range the flux is summed on the grid. The albedo, which depends on
+	 * the Sun position, is still summed on the grid.
+	 * </p>
+	 * <p>
+	 * The interpolation assumes a smooth flux: with a coarse regular grid the flux follows
+	 * the position of the satellite relative to the cells, so the table is best used with
+	 * the adaptive grid or with a grid finer than the table step.
+	 * </p>
+	 * <p>
+	 * The table is stored in the cache folder, in a file named after the hash of the
+	 * grid and table settings, and is loaded instead of being recomputed when the
+	 * same settings are used again. If the table cannot be written, the computed table
+	 * is used and the error is available from {@link #getTableCacheError()}.
+	 * </p>
+	 * @param altitudeMin lowest altitude of the table (m)
+	 * @param altitudeMax highest altitude of the table (m)
+	 * @param altitudeStep altitude step of the table (m)
+	 * @param angleStep latitude and longitude step of the table (deg), should divide 180
+	 * @param cacheFolder folder of the table files, null to disable the cache
+	 * @return true if the table was loaded from the cache, false if it was computed
+	 */
+	public boolean buildFluxTable(double altitudeMin, double altitudeMax, double altitudeStep,
+			double angleStep, File cacheFolder)
+	{
+		this.tableAltitudeMin  = altitudeMin;
+		this.tableAltitudeStep = altitudeStep;
+		this.tableAngleStep    = Math.toRadians(angleStep);
+		this.tableAltitudes    = (int) Math.floor((altitudeMax - altitudeMin) / altitudeStep + 1.0e-9) + 1;
+		this.tableLatitudes    = (int) Math.floor(180 / angleStep + 1.0e-9) + 1;
+		this.tableLongitudes   = (int) Math.floor(360 / angleStep + 1.0e-9);
+		
+		final String key = "version=1;type=" + this.radiationType + ";radius=" + this.bodyShape.getEquatorialRadius() +
+				";pressure=" + this.solarPressure + ";rawAlbedo=" + this.rawAlbedo +
+				";grid=" + this.latituteDeg + "," + this.longitudeDeg +
+				";adaptive=" + (this.adaptive ? this.adaptiveNadirStep + "," + this.adaptiveGrowth : "false") +
+				";horizon=" + this.horizonCulling +
+				";altitude=" + altitudeMin + "," + altitudeStep + "," + this.tableAltitudes +
+				";angle=" + angleStep;
+		final File cacheFile = (cacheFolder == null) ? null : new File(cacheFolder, "infrared-" + hash(key) + ".table");
+		
+		final boolean loaded = (cacheFile != null) && readFluxTable(cacheFile, key);
+		this.tableCacheError = null;
+		if(!loaded)
+		{
+			computeFluxTable();
+			if(cacheFile != null)
+			{
+				try
+				{
+					writeFluxTable(cacheFile, key);
+				}
+				catch(IOException e)
+				{
+					// the table is already computed, the next runs will compute it again
+					this.tableCacheError = e;
+				}
+			}
+		}
+		
+		this.fluxMethod = InfraredFluxMethod.TABLE;
+		return loaded;
+	}
+
+	@Override
+	/**
+	 * Same as SolarRadiationPressure
+	 */
+	public ParameterDriver[] getParametersDrivers() {
+		
+		return spacecraft.getRadiationParametersDrivers();
+	}
+	
+	
+	/**
+	 * InfraredContribution private functions
+	 * Added as private functions for performance only
+	 */
+	
+	/**
+	 * UPDATEEMISSIVITY Refresh the emissivity table if the date moved by more than the tolerance
+	 * @param date the current date
+	 */
+	private void updateEmissivity(AbsoluteDate date)
+	{
+		if(this.emissivityDate != null && 
+				Math.abs(date.durationFrom(this.emissivityDate)) <= this.emissivityTolerance)
+		{
+			return;
+		}
+		
+		this.emissivityE1 = computeEmissivityE1(date);
+		this.albedoA1     = computeAlbedoA1(date);
+		for(int i = 0; i < this.gridRows; i++)
+		{
+			this.rowEmissivity[i] = cellEmissivity(this.rowSinLatitude[i]);
+			this.rowAlbedo[i]     = cellAlbedo(this.rowSinLatitude[i]);
+		}
+		this.emissivityDate = date;
+	}
+	
+	/**
+	 * COMPUTEFLUXTABLE Compute the emitted flux at the nodes of the table
+	 */
+	private void computeFluxTable()
+	{
+		final int nodes = this.tableAltitudes * this.tableLatitudes * this.tableLongitudes;
+		this.tableBase = new double[3 * nodes];
+		this.tableE1   = new double[3 * nodes];
+		
+		// the nodes are computed with the emitted flux only
+		final InfraredFluxMethod method = this.fluxMethod;
+		final boolean withAlbedo        = this.albedo;
+		this.fluxMethod   = InfraredFluxMethod.GRID;
+		this.albedo       = false;
+		this.gridEmission = true;
+		
+		if(this.radiationType == org.orekit.forces.radiation.RadiationType.EARTH)
+		{
+			fillFluxTable(this.tableBase, EMISSIVITY_E0, 0.0, EMISSIVITY_E2);
+			fillFluxTable(this.tableE1, 0.0, 1.0, 0.0);
+		}
+		else
+		{
+			// constant emissivity, the e1 part is zero
+			fillFluxTable(this.tableBase, 0.0, 0.0, 0.0);
+		}
+		
+		this.emissivityE0   = EMISSIVITY_E0;
+		this.emissivityE2   = EMISSIVITY_E2;
+		this.emissivityDate = null;
+		this.fluxMethod     = method;
+		this.albedo         = withAlbedo;
+	}
+	
+	/**
+	 * FILLFLUXTABLE Compute the emitted flux at the nodes of the table for the given emissivity
+	 * @param table the table to fill, (up, east, north) components
+	 * @param e0 the constant emissivity coefficient
+	 * @param e1 the linear emissivity coefficient
+	 * @param e2 the quadratic emissivity coefficient
+	 */
+	private void fillFluxTable(double[] table, double e0, double e1, double e2)
+	{
+		this.emissivityE0 = e0;
+		this.emissivityE1 = e1;
+		this.emissivityE2 = e2;
+		for(int i = 0; i < this.gridRows; i++)
+		{
+			this.rowEmissivity[i] = cellEmissivity(this.rowSinLatitude[i]);
+		}
+		
+		final double R = this.bodyShape.getEquatorialRadius();
+		final double[] acc = this.fluxAccumulator;
+		int index = 0;
+		for(int i = 0; i < this.tableAltitudes; i++)
+		{
+			final double r = R + this.tableAltitudeMin + i * this.tableAltitudeStep;
+			for(int j = 0; j < this.tableLatitudes; j++)
+			{
+				final double latitude = -Math.PI / 2 + j * this.tableAngleStep;
+				final double sinLat   = Math.sin(latitude);
+				final double cosLat   = Math.cos(latitude);
+				for(int k = 0; k < this.tableLongitudes; k++)
+				{
+					final double longitude = -Math.PI + k * this.tableAngleStep;
+					final double sinLon    = Math.sin(longitude);
+					final double cosLon    = Math.cos(longitude);
+					
+					acc[0] = 0.0;
+					acc[1] = 0.0;
+					acc[2] = 0.0;
+					final Vector3D node = new Vector3D(r * cosLat * cosLon, r * cosLat * sinLon, r * sinLat);
+					if(this.adaptive)
+					{
+						accumulateAdaptiveGrid(node, acc);
+					}
+					else
+					{
+						accumulateGrid(node, acc);
+					}
+					
+					// local up, east and north components
+					table[index++] = cosLat * cosLon * acc[0] + cosLat * sinLon * acc[1] + sinLat * acc[2];
+					table[index++] = -sinLon * acc[0] + cosLon * acc[1];
+					table[index++] = -sinLat * cosLon * acc[0] - sinLat * sinLon * acc[1] + cosLat * acc[2];
+				}
+			}
+		}
+	}
+	
+	/**
+	 * INTERPOLATEFLUX Interpolate the emitted flux in the table
+	 * @param position the satellite position
+	 * @return the emitted flux (N/m²), or null if the altitude is outside of the table
+	 */
+	private Vector3D interpolateFlux(final Vector3D position)
+	{
+        final double px    = position.getX();
+        final double py    = position.getY();
+        final double pz    = position.getZ();
+        final double pNorm = Math.sqrt(px * px + py * py + pz * pz);
+        
+        final double altitude = (pNorm - this.bodyShape.getEquatorialRadius() - this.tableAltitudeMin) / this.tableAltitudeStep;
+        if(this.tableBase == null || altitude < 0 || altitude > this.tableAltitudes - 1)
+        {
+        	return null;
+        }
+        final double latitude  = (Math.asin(pz / pNorm) + Math.PI / 2) / this.tableAngleStep;
+        final double longitude = (Math.atan2(py, px) + Math.PI) / this.tableAngleStep;
+        
+        // cell of the table and weights of the upper nodes
+        final int i = Math.min((int) altitude, this.tableAltitudes - 2);
+        final int j = Math.min((int) latitude, this.tableLatitudes - 2);
+        final int k = Math.min((int) longitude, this.tableLongitudes - 1);
+        final double wi = altitude - i;
+        final double wj = latitude - j;
+        final double wk = longitude - k;
+        final int kNext = (k + 1 == this.tableLongitudes) ? 0 : k + 1;
+        
+        // trilinear interpolation of the (up, east, north) components
+        final double e1 = (this.radiationType == org.orekit.forces.radiation.RadiationType.EARTH) ? this.emissivityE1 : 0.0;
+        double up    = 0.0;
+        double east  = 0.0;
+        double north = 0.0;
+        for(int di = 0; di < 2; di++)
+        {
+        	for(int dj = 0; dj < 2; dj++)
+        	{
+        		for(int dk = 0; dk < 2; dk++)
+        		{
+        			final double w = (di == 0 ? 1 - wi : wi) * (dj == 0 ? 1 - wj : wj) * (dk == 0 ? 1 - wk : wk);
+        			final int index = 3 * (((i + di) * this.tableLatitudes + j + dj) * this.tableLongitudes + (dk == 0 ? k : kNext));
+        			up    += w * (this.tableBase[index]     + e1 * this.tableE1[index]);
+        			east  += w * (this.tableBase[index + 1] + e1 * this.tableE1[index + 1]);
+        			north += w * (this.tableBase[index + 2] + e1 * this.tableE1[index + 2]);
+        		}
+        	}
+        }
+        
+        // back to the frame of the grid
+        final double horizontal = Math.sqrt(px * px + py * py);
+        final double sinLat = pz / pNorm;
+        final double cosLat = horizontal / pNorm;
+        final double sinLon = (horizontal > 0) ? py / horizontal : 0.0;
+        final double cosLon = (horizontal > 0) ? px / horizontal : 1.0;
+        return new Vector3D(cosLat * cosLon * up - sinLon * east - sinLat * cosLon * north,
+        		            cosLat * sinLon * up + cosLon * east - sinLat * sinLon * north,
+        		            sinLat * up + cosLat * north);
+	}
+	
+	/**
+	 * READFLUXTABLE Read the flux table from a cache file
+	 * @param file the cache file
+	 * @param key the settings of the table
+	 * @return true if the table was read, false if the file does not exist or does not match the settings
+	 */
+	private boolean readFluxTable(File file, String key)
+	{
+		if(!file.isFile())
+		{
+			return false;
+		}
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+		{
+			if(!key.equals(in.readUTF()) || in.readInt() != this.tableAltitudes ||
+					in.readInt() != this.tableLatitudes || in.readInt() != this.tableLongitudes)
+			{
+				return false;
+			}
+			final int size = 3 * this.tableAltitudes * this.tableLatitudes * this.tableLongitudes;
+			final double[] base = new double[size];
+			final double[] e1   = new double[size];
+			for(int n = 0; n < size; n++)
+			{
+				base[n] = in.readDouble();
+			}
+			for(int n = 0; n < size; n++)
+			{
+				e1[n] = in.readDouble();
+			}
+			this.tableBase = base;
+			this.tableE1   = e1;
+			return true;
+		}
+		catch(IOException e)
+		{
+			// unreadable or truncated file, the table is computed again
+			return false;
+		}
+	}
+	
+	/**
+	 * WRITEFLUXTABLE Write the flux table in a cache file
+	 * @param file the cache file
+	 * @param key the settings of the table
+	 * @throws IOException if the file cannot be written
+	 */
+	private void writeFluxTable(File file, String key) throws IOException
+	{
+		final File folder = file.getParentFile();
+		if(folder != null && !folder.isDirectory() && !folder.mkdirs())
+		{
+			throw new IOException("Cannot create the infrared table folder " + folder);
+		}
+		
+		// written in a temporary file first, so a concurrent run never reads a partial table
+		final File temporary = File.createTempFile("infrared-", ".tmp", folder);
+		boolean moved = false;
+		try
+		{
+			try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary))))
+			{
+				out.writeUTF(key);
+				out.writeInt(this.tableAltitudes);
+				out.writeInt(this.tableLatitudes);
+				out.writeInt(this.tableLongitudes);
+				for(double value : this.tableBase)
+				{
+					out.writeDouble(value);
+				}
+				for(double value : this.tableE1)
+				{
+					out.writeDouble(value);
+				}
+			}
+			try
+			{
+				Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch(AtomicMoveNotSupportedException e)
+			{
+				Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			moved = true;
+		}
+		finally
+		{
+			if(!moved)
+			{
+				temporary.delete();
+			}
+		}
+	}
+	
+	/**
+	 * HASH Hash of the table settings, used as cache file name
+	 * @param key the settings of the table
+	 * @return the hexadecimal SHA-256 hash
+	 */
+	private static String hash(String key)
+	{
+		try
+		{
+			final StringBuilder hex = new StringBuilder();
+			for(byte b : MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8)))
+			{
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		}
+		catch(NoSuchAlgorithmException e)
+		{
+			// SHA-256 is available on every Java platform
+			throw new OrekitInternalError(e);
+		}
+	}
+	
+	/**
+	 * LOADVECTORKERNEL Load the SIMD summation kernel
+	 * @return the kernel, or null if it is not compiled or if the vector module is not available
+	 */
+	private static InfraredCellKernel loadVectorKernel()
+	{
+		try
+		{
+			return (InfraredCellKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+		}
+		catch(ReflectiveOperationException | LinkageError e)
+		{
+			return null;
+		}
+	}
+	
+	/**
+	 * CELLEMISSIVITY Emissivity of a cell, using the e1 coefficient of the emissivity table
+	 * @param sinPhi sine of the cell latitude
+	 * @return the emissivity
+	 */
+	private double cellEmissivity(double sinPhi)
+	{
+		if(this.radiationType == org.orekit.forces.radiation.RadiationType.EARTH)
+		{
+			return computeEmissivity(this.emissivityE0, this.emissivityE1, this.emissivityE2, sinPhi);
+		}
+		else
+		{
+			return 1 - this.rawAlbedo;
+		}
+	}
+	
+	/**
+	 * CELLALBEDO Albedo of a cell, using the a1 coefficient of the albedo table
+	 * @param sinPhi sine of the cell latitude
+	 * @return the albedo
+	 */
+	private double cellAlbedo(double sinPhi)
+	{
+		if(this.radiationType == org.orekit.forces.radiation.RadiationType.EARTH)
+		{
+			return computeAlbedo(this.albedoA1, sinPhi);
+		}
+		else
+		{
+			return this.rawAlbedo;
+		}
+	}
+	
+	/**
+	 * ACCUMULATECELLS Add the flux of the visible cells in the range [from, to) to the accumulator
+	 * @param from first cell index
+	 * @param to last cell index (excluded)
+	 * @param px satellite position x
+	 * @param py satellite position y
+	 * @param pz satellite position z
+	 * @param pNorm satellite distance to the body centre
+	 * @param cosHorizon cosine of the horizon angle
+	 * @param weight emissivity * pressure * area / (4 * PI) of the cells
+	 * @param albedoWeight albedo * pressure * area / PI of the cells, 0 without albedo
+	 * @param acc the flux accumulator
+	 */
+	private void accumulateCells(int from, int to, double px, double py, double pz, double pNorm,
+			double cosHorizon, double weight, double albedoWeight, double[] acc)
+	{
+		if(this.cellKernel != null)
+		{
+			this.cellKernel.accumulate(from, to, this.cellX, this.cellY, this.cellZ,
+					this.normalX, this.normalY, this.normalZ, px, py, pz, pNorm, cosHorizon, weight,
+					this.sunX, this.sunY, this.sunZ, albedoWeight, acc);
+			return;
+		}
+		
+		for(int k = from; k < to; k++)
+		{
+			// cosine of the angle between the cell normal and the satellite direction
+			final double cosSatGridAngle = (this.normalX[k] * px + this.normalY[k] * py + this.normalZ[k] * pz) / pNorm;
+			if(cosSatGridAngle >= cosHorizon)
+			{
+				final double dx = px - this.cellX[k];
+				final double dy = py - this.cellY[k];
+				final double dz = pz - this.cellZ[k];
+				final double satGridDistanceSq = dx * dx + dy * dy + dz * dz;
+				final double satGridDistance   = Math.sqrt(satGridDistanceSq);
+				
+				double w = weight;
+				if(albedoWeight != 0.0)
+				{
+					// only the sunlit cells reflect
+					w += albedoWeight * Math.max(0.0, this.normalX[k] * this.sunX + this.normalY[k] * this.sunY + this.normalZ[k] * this.sunZ);
+				}
+				
+				// the last division normalizes the cell to satellite vector
+				final double f = w * cosSatGridAngle / (satGridDistanceSq * satGridDistance);
+				acc[0] += f * dx;
+				acc[1] += f * dy;
+				acc[2] += f * dz;
+			}
+		}
+	}
+	
+	/**
+	 * BUILDGRID Precompute the emitter grid geometry
+	 * <p>
+	 * The cell centres, unit normals, areas and latitudes only depend on the
+	 * grid resolution and on the central body radius, so they are computed
+	 * once per instance instead of at each force evaluation.
+	 * </p>
+	 */
+	private void buildGrid()
+	{
+		final double R = this.bodyShape.getEquatorialRadius();
+		
+		// number of cells of the 1..sy and 1..sx loops, 360 / 3 must give 120 columns, not 119
+		this.gridRows    = (int) Math.floor(this.sy + 1.0e-9);
+		this.gridColumns = (int) Math.floor(this.sx + 1.0e-9);
+		
+		this.rowLatitude    = new double[this.gridRows];
+		this.rowSinLatitude = new double[this.gridRows];
+		this.rowCosLatitude = new double[this.gridRows];
+		this.rowArea        = new double[this.gridRows];
+		this.rowEmissivity  = new double[this.gridRows];
+		this.rowFlux        = new double[3 * this.gridRows];
+		this.rowAlbedo      = new double[this.gridRows];
+		this.emissivityDate = null;
+		this.columnStep     = 2 * Math.PI / this.sx;
+		
+		final int cells = this.gridRows * this.gridColumns;
+		this.cellX   = new double[cells];
+		this.cellY   = new double[cells];
+		this.cellZ   = new double[cells];
+		this.normalX = new double[cells];
+		this.normalY = new double[cells];
+		this.normalZ = new double[cells];
+		
+		for(int i = 1; i <= this.gridRows; i++)
+		{
+			this.rowArea[i - 1] = computeArea(R, i, this.sy, this.sx);
+			
+			for(int j = 1; j <= this.gridColumns; j++)
+			{
+				//[phi, theta]
+				final double[] angles = indexToRadian(i, j, this.sy, this.sx);
+				this.rowLatitude[i - 1]    = angles[0];
+				this.rowSinLatitude[i - 1] = Math.sin(angles[0]);
+				this.rowCosLatitude[i - 1] = Math.cos(angles[0]);
+				
+				final int k = (i - 1) * this.gridColumns + (j - 1);
+				this.normalX[k] = Math.cos(angles[0]) * Math.cos(angles[1]);
+				this.normalY[k] = Math.cos(angles[0]) * Math.sin(angles[1]);
+				this.normalZ[k] = Math.sin(angles[0]);
+				this.cellX[k]   = R * this.normalX[k];
+				this.cellY[k]   = R * this.normalY[k];
+				this.cellZ[k]   = R * this.normalZ[k];
+			}
+		}
+	}
+	
+	private double[] indexToRadian(int i, int j, double sy, double sx)
+	{
+		double[] retVect = new double[2];
+		double ux = 2 * Math.PI / sx;
+		double uy = Math.PI / sy;
+		
+		retVect[0] = (-1) * (Math.PI / 2) + (i - 0.5) * uy;
 		retVect[1] = Math.PI - (j - 0.5) * ux;
 		
 		return retVect;
@@ -362,35 +1848,66 @@ public class InfraredContribution extends AbstractRadiationForceModel {
 	}
 	
 	/**
-	 * COMPUTEEMISSIVITY Compute the Earth emissivity using P. Knocke emissivity model 
-	 * (Earth Radiation Pressure Effects on Satellites, P. Knocke, CSR-89-1, May 1989) 
+	 * COMPUTEEMISSIVITYE1 Compute the date dependent coefficient e1 of the emissivity model
 	 * @param date
-	 * @param phi
 	 * @return 
 	 */
-	private double computeEmissivity(AbsoluteDate date, double phi)
+	private double computeEmissivityE1(AbsoluteDate date)
 	{
-			
 		double JD = date.durationFrom(org.orekit.forces.radiation.SolarRadiationConstants.BASE_EPOCH);
-		double e0 = 0.68;
-		double k0 = 0;
-		double k1 = -0.07;
-		double k2 = 0;
-		double e2 = -0.18;
 		
 		/**
 		 * Compute e1
 		 */
-		double e1 = k0 + k1 * Math.cos(org.orekit.forces.radiation.SolarRadiationConstants.ORBITAL_PULSATION * JD) +
-			             k2 * Math.sin(org.orekit.forces.radiation.SolarRadiationConstants.ORBITAL_PULSATION * JD);
-		/**
-		 * Compute the earth albedo for the given latitude and date
-		 */
-		return e0 + e1 * Math.sin(phi) + e2 * 1 / 2 * (3 * Math.pow(Math.sin(phi), 2) - 1);
+		return EMISSIVITY_K0 + EMISSIVITY_K1 * Math.cos(org.orekit.forces.radiation.SolarRadiationConstants.ORBITAL_PULSATION * JD) +
+			                   EMISSIVITY_K2 * Math.sin(org.orekit.forces.radiation.SolarRadiationConstants.ORBITAL_PULSATION * JD);
+	}
+	
+	/**
+	 * COMPUTEALBEDOA1 Compute the date dependent coefficient of the Knocke albedo model
+	 * @param date the current date
+	 * @return the a1 coefficient
+	 */
+	private double computeAlbedoA1(AbsoluteDate date)
+	{
+		double JD = date.durationFrom(org.orekit.forces.radiation.SolarRadiationConstants.BASE_EPOCH);
+		
+		return ALBEDO_C0 + ALBEDO_C1 * Math.cos(org.orekit.forces.radiation.SolarRadiationConstants.ORBITAL_PULSATION * JD) +
+		                   ALBEDO_C2 * Math.sin(org.orekit.forces.radiation.SolarRadiationConstants.ORBITAL_PULSATION * JD);
+	}
+	
+	/**
+	 * COMPUTEALBEDO Compute the Earth albedo using P. Knocke albedo model 
+	 * (Earth Radiation Pressure Effects on Satellites, P. Knocke, CSR-89-1, May 1989) 
+	 * @param a1 the date dependent coefficient, see {@link #computeAlbedoA1(AbsoluteDate)}
+	 * @param sinPhi sine of the latitude
+	 * @return the albedo
+	 */
+	private static double computeAlbedo(double a1, double sinPhi)
+	{
+		return ALBEDO_A0 + a1 * sinPhi + ALBEDO_A2 * 1 / 2 * (3 * sinPhi * sinPhi - 1);
+	}
+	
+	/**
+	 * COMPUTEEMISSIVITY Compute the Earth emissivity using P. Knocke emissivity model 
+	 * (Earth Radiation Pressure Effects on Satellites, P. Knocke, CSR-89-1, May 1989) 
+	 * @param e0 the constant coefficient
+	 * @param e1 the date dependent coefficient, see {@link #computeEmissivityE1(AbsoluteDate)}
+	 * @param e2 the quadratic coefficient
+	 * @param sinPhi sine of the latitude
+	 * @return 
+	 */
+	private static double computeEmissivity(double e0, double e1, double e2, double sinPhi)
+	{
+		return e0 + e1 * sinPhi + e2 * 1 / 2 * (3 * sinPhi * sinPhi - 1);
 	}
 	
 	/**
 	 * COMPUTEAREA Calculates the area of the surface
+	 * <p>
+	 * The cell of row i spans the colatitudes [(i - 1) * PI / sy, i * PI / sy],
+	 * so its area is proportional to the sine of the colatitude of its centre.
+	 * </p>
 	 * @param radius
 	 * @param i
 	 * @param sy
@@ -399,7 +1916,7 @@ public class InfraredContribution extends AbstractRadiationForceModel {
 	 */
 	private double computeArea(double radius, int i, double sy, double sx)
 	{
-		return (4 * Math.PI * Math.pow(radius, 2))/ sx * Math.sin(Math.PI/2/sy) * Math.sin(((i - 0.5) * Math.PI) / sx);
+		return (4 * Math.PI * Math.pow(radius, 2))/ sx * Math.sin(Math.PI/2/sy) * Math.sin(((i - 0.5) * Math.PI) / sy);
 	}
 
    
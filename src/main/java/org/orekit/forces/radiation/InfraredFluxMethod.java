@@ -0,0 +1,13 @@
+package org.orekit.forces.radiation;
+
+/**
+ * Method used by {@link InfraredContribution} to compute the flux emitted by the central body
+ * GRID       - quadrature over the emitter grid (regular or adaptive)
+ * ANALYTICAL - closed form integration of the zonal emissivity over the visible cap
+ * TABLE      - interpolation in a precomputed table of the grid flux, see {@link InfraredContribution#buildFluxTable}
+ */
+public enum InfraredFluxMethod{
+	GRID,
+	ANALYTICAL,
+	TABLE;
+}
@@ -108,6 +108,38 @@ public interface SolarRadiationConstants {
 	 */
 	double LONGITUDE_DEGREE = 10;
 	
+	/** 
+	 * Default ring width at the nadir for the adaptive grid 
+	 */
+	double ADAPTIVE_NADIR_DEGREE = 1;
+	
+	/** 
+	 * Default width ratio between two consecutive rings of the adaptive grid 
+	 */
+	double ADAPTIVE_GROWTH = 1.5;
+	
+	/** 
+	 * Default grid spacing of the reference grid used to estimate the flux error 
+	 */
+	double REFERENCE_GRID_DEGREE = 0.5;
+	
+	/** 
+	 * Default number of cells above which the infrared grid is evaluated in parallel (about a 0.75 degree grid) 
+	 */
+	int PARALLEL_CELL_THRESHOLD = 100000;
+	
+	/** 
+	 * Default altitude range and altitude step of the infrared flux table (m) 
+	 */
+	double TABLE_ALTITUDE_MIN = 200e3;
+	double TABLE_ALTITUDE_MAX = 2000e3;
+	double TABLE_ALTITUDE_STEP = 50e3;
+	
+	/** 
+	 * Default latitude and longitude step of the infrared flux table (deg) 
+	 */
+	double TABLE_ANGLE_STEP = 2;
+	
 	
 	/** 
 	 * Sun - Mercury distance (AU) 